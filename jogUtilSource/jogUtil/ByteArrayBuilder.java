@@ -4,86 +4,155 @@ import jogUtil.data.*;
 import jogUtil.data.values.*;
 import jogUtil.indexable.*;
 
+import java.io.*;
+import java.nio.*;
 import java.util.*;
 
-public class ByteArrayBuilder
+/**
+ * Growable big-endian byte buffer.
+ * <p>
+ *     Also usable as a DataOutput, which allows Values and Data to be written straight into it.
+ * </p>
+ */
+public class ByteArrayBuilder implements DataOutput
 {
-	final ArrayList<Byte> data = new ArrayList<>();
+	byte[] data;
+	int size = 0;
 	
 	public ByteArrayBuilder()
 	{
+		this(16);
+	}
 	
+	/**
+	 * Creates a builder with room for the given number of bytes before it needs to grow.
+	 * @param capacity
+	 */
+	public ByteArrayBuilder(int capacity)
+	{
+		if (capacity < 0)
+			throw new IllegalArgumentException("Capacity can not be negative.");
+		data = new byte[capacity];
 	}
 	
 	public ByteArrayBuilder(Byte[] data)
 	{
+		this(data.length);
 		add(data);
 	}
 	
 	public ByteArrayBuilder(byte[] data)
 	{
+		this(data.length);
 		add(data);
 	}
 	
+	/**
+	 * Makes sure there is room for at least the given number of additional bytes.
+	 * <p>
+	 *     The buffer at least doubles each time it grows, so appending is amortized constant time.
+	 * </p>
+	 * @param additional
+	 */
+	public void ensureCapacity(int additional)
+	{
+		int required = size + additional;
+		if (required < 0)
+			throw new OutOfMemoryError("Required array size too large.");
+		if (required > data.length)
+			data = Arrays.copyOf(data, Math.max(required, Math.max(data.length << 1, 16)));
+	}
+	
 	public void add(byte value)
 	{
-		data.add(value);
+		ensureCapacity(1);
+		data[size++] = value;
 	}
 	
 	public void add(Byte value)
 	{
-		data.add(value);
+		add((byte)value);
 	}
 	
 	public void add(byte[] data)
 	{
-		for (byte datum : data)
-			this.data.add(datum);
+		add(data, 0, data.length);
+	}
+	
+	/**
+	 * Adds a range of bytes from the given array.
+	 * @param data
+	 * @param offset index of the first byte to add
+	 * @param length number of bytes to add
+	 */
+	public void add(byte[] data, int offset, int length)
+	{
+		Objects.checkFromIndexSize(offset, length, data.length);
+		ensureCapacity(length);
+		System.arraycopy(data, offset, this.data, size, length);
+		size += length;
 	}
 	
 	public void add(Byte[] data)
 	{
-		this.data.addAll(Arrays.asList(data));
+		ensureCapacity(data.length);
+		for (Byte datum : data)
+			this.data[size++] = datum;
 	}
 	
 	public void add(int value)
 	{
-		add(IntegerValue.toByteData(value));
+		ensureCapacity(4);
+		writeInt(size, value);
+		size += 4;
 	}
 	
 	public void add(long value)
 	{
-		add(LongValue.toByteData(value));
+		ensureCapacity(8);
+		writeInt(size, (int)(value >>> 32));
+		writeInt(size + 4, (int)value);
+		size += 8;
 	}
 	
 	public void add(short value)
 	{
-		add(ShortValue.toByteData(value));
+		ensureCapacity(2);
+		data[size++] = (byte)(value >>> 8);
+		data[size++] = (byte)value;
 	}
 	
 	public void add(boolean value)
 	{
-		add(BooleanValue.toByteData(value));
+		add(value ? (byte)1 : 0);
 	}
 	
 	public void add(float value)
 	{
-		add(FloatValue.toByteData(value));
+		add(Float.floatToRawIntBits(value));
 	}
 	
 	public void add(double value)
 	{
-		add(DoubleValue.toByteData(value));
+		add(Double.doubleToRawLongBits(value));
 	}
 	
 	public void add(UUID id)
 	{
-		add(UUIDValue.toByteData(id));
+		add(id.getMostSignificantBits());
+		add(id.getLeastSignificantBits());
 	}
 	
 	public void add(Value<?, ?> value)
 	{
-		add(value.asBytes());
+		try
+		{
+			value.writeTo(this);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
 	}
 	
 	public void add(String value)
@@ -98,40 +167,215 @@ public class ByteArrayBuilder
 	
 	public void add(Data data)
 	{
-		add(data.toByteData());
+		try
+		{
+			data.writeTo(this);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	@Override
+	public void write(int value)
+	{
+		add((byte)value);
+	}
+	
+	@Override
+	public void write(byte[] data)
+	{
+		add(data);
+	}
+	
+	@Override
+	public void write(byte[] data, int offset, int length)
+	{
+		add(data, offset, length);
+	}
+	
+	@Override
+	public void writeBoolean(boolean value)
+	{
+		add(value);
+	}
+	
+	@Override
+	public void writeByte(int value)
+	{
+		add((byte)value);
+	}
+	
+	@Override
+	public void writeShort(int value)
+	{
+		add((short)value);
+	}
+	
+	@Override
+	public void writeChar(int value)
+	{
+		add((short)value);
+	}
+	
+	@Override
+	public void writeInt(int value)
+	{
+		add(value);
+	}
+	
+	@Override
+	public void writeLong(long value)
+	{
+		add(value);
+	}
+	
+	@Override
+	public void writeFloat(float value)
+	{
+		add(Float.floatToRawIntBits(value));
+	}
+	
+	@Override
+	public void writeDouble(double value)
+	{
+		add(Double.doubleToRawLongBits(value));
+	}
+	
+	@Override
+	public void writeBytes(String string)
+	{
+		ensureCapacity(string.length());
+		for (int index = 0; index < string.length(); index++)
+			data[size++] = (byte)string.charAt(index);
+	}
+	
+	@Override
+	public void writeChars(String string)
+	{
+		ensureCapacity(string.length() * 2);
+		for (int index = 0; index < string.length(); index++)
+			add((short)string.charAt(index));
+	}
+	
+	@Override
+	public void writeUTF(String string) throws UTFDataFormatException
+	{
+		int start = size;
+		add((short)0);
+		for (int index = 0; index < string.length(); index++)
+		{
+			char ch = string.charAt(index);
+			if (ch >= 0x0001 && ch <= 0x007F)
+				add((byte)ch);
+			else if (ch <= 0x07FF)
+			{
+				add((byte)(0xC0 | ((ch >> 6) & 0x1F)));
+				add((byte)(0x80 | (ch & 0x3F)));
+			}
+			else
+			{
+				add((byte)(0xE0 | ((ch >> 12) & 0x0F)));
+				add((byte)(0x80 | ((ch >> 6) & 0x3F)));
+				add((byte)(0x80 | (ch & 0x3F)));
+			}
+		}
+		int length = size - start - 2;
+		if (length > 65535)
+		{
+			size = start;
+			throw new UTFDataFormatException("Encoded string too long: " + length + " bytes");
+		}
+		data[start] = (byte)(length >>> 8);
+		data[start + 1] = (byte)length;
 	}
 	
 	public int size()
 	{
-		return data.size();
+		return size;
 	}
 	
 	public byte get(int index)
 	{
-		return data.get(index);
+		return data[Objects.checkIndex(index, size)];
 	}
 	
 	public void set(int index, byte byt)
 	{
-		data.set(index, byt);
+		data[Objects.checkIndex(index, size)] = byt;
+	}
+	
+	/**
+	 * Overwrites 4 bytes starting at the given index with a big-endian int.
+	 * <p>
+	 *     Useful for filling in a length or offset once the data it describes has been written.
+	 * </p>
+	 * @param index
+	 * @param value
+	 */
+	public void setInt(int index, int value)
+	{
+		Objects.checkFromIndexSize(index, 4, size);
+		writeInt(index, value);
+	}
+	
+	/**
+	 * Overwrites 8 bytes starting at the given index with a big-endian long.
+	 * @param index
+	 * @param value
+	 */
+	public void setLong(int index, long value)
+	{
+		Objects.checkFromIndexSize(index, 8, size);
+		writeInt(index, (int)(value >>> 32));
+		writeInt(index + 4, (int)value);
+	}
+	
+	private void writeInt(int index, int value)
+	{
+		data[index] = (byte)(value >>> 24);
+		data[index + 1] = (byte)(value >>> 16);
+		data[index + 2] = (byte)(value >>> 8);
+		data[index + 3] = (byte)value;
 	}
 	
 	public void remove(int index)
 	{
-		data.remove(index);
+		Objects.checkIndex(index, size);
+		System.arraycopy(data, index + 1, data, index, size - index - 1);
+		size--;
+	}
+	
+	/**
+	 * Removes all bytes while keeping the current capacity.
+	 */
+	public void clear()
+	{
+		size = 0;
+	}
+	
+	/**
+	 * Provides a view of the current contents without copying them.
+	 * <p>
+	 *     The view shares this builder's storage, so it should be used before anything else is added to the
+	 *     builder.  Once the builder grows the view will no longer reflect further changes.
+	 * </p>
+	 * @return
+	 */
+	public ByteBuffer toByteBuffer()
+	{
+		return ByteBuffer.wrap(data, 0, size).slice();
 	}
 	
 	public byte[] toPrimitiveArray()
 	{
-		byte[] data = new byte[this.data.size()];
-		for (int index = 0; index < data.length; index++)
-			data[index] = this.data.get(index);
-		return data;
+		return Arrays.copyOf(data, size);
 	}
 	
 	public Byte[] toObjectArray()
 	{
-		return data.toArray(new Byte[0]);
+		return toObject(toPrimitiveArray());
 	}
 	
 	public static byte[] toPrimitive(Collection<Byte> bytes)
@@ -169,6 +413,6 @@ public class ByteArrayBuilder
 	
 	public static Indexer<Byte> indexer(byte[] data)
 	{
-		return (new IndexableArray<>(toObject(data))).iterator();
+		return (new IndexableByteBuffer(data)).iterator();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,129 @@
+package jogUtil;
+
+import java.io.*;
+import java.nio.*;
+
+/**
+ * Writes to a ByteBuffer through the DataOutput interface.
+ * <p>
+ *     Allows Values and Data to be written directly into a heap, direct, or mapped buffer.  All values are written
+ *     big-endian, so the buffer's byte order is switched to big-endian.<br>
+ *     Writing advances the buffer's position.<br>
+ *     If the buffer runs out of room a BufferOverflowException is thrown.
+ * </p>
+ */
+public class ByteBufferOutput implements DataOutput
+{
+	final ByteBuffer buffer;
+	
+	public ByteBufferOutput(ByteBuffer buffer)
+	{
+		this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Returns the underlying buffer.
+	 * @return
+	 */
+	public ByteBuffer buffer()
+	{
+		return buffer;
+	}
+	
+	/**
+	 * Returns how many bytes have been written to the underlying buffer so far.
+	 * @return
+	 */
+	public int position()
+	{
+		return buffer.position();
+	}
+	
+	@Override
+	public void write(int value)
+	{
+		buffer.put((byte)value);
+	}
+	
+	@Override
+	public void write(byte[] data)
+	{
+		buffer.put(data);
+	}
+	
+	@Override
+	public void write(byte[] data, int offset, int length)
+	{
+		buffer.put(data, offset, length);
+	}
+	
+	@Override
+	public void writeBoolean(boolean value)
+	{
+		buffer.put(value ? (byte)1 : 0);
+	}
+	
+	@Override
+	public void writeByte(int value)
+	{
+		buffer.put((byte)value);
+	}
+	
+	@Override
+	public void writeShort(int value)
+	{
+		buffer.putShort((short)value);
+	}
+	
+	@Override
+	public void writeChar(int value)
+	{
+		buffer.putChar((char)value);
+	}
+	
+	@Override
+	public void writeInt(int value)
+	{
+		buffer.putInt(value);
+	}
+	
+	@Override
+	public void writeLong(long value)
+	{
+		buffer.putLong(value);
+	}
+	
+	@Override
+	public void writeFloat(float value)
+	{
+		buffer.putFloat(value);
+	}
+	
+	@Override
+	public void writeDouble(double value)
+	{
+		buffer.putDouble(value);
+	}
+	
+	@Override
+	public void writeBytes(String string)
+	{
+		for (int index = 0; index < string.length(); index++)
+			buffer.put((byte)string.charAt(index));
+	}
+	
+	@Override
+	public void writeChars(String string)
+	{
+		for (int index = 0; index < string.length(); index++)
+			buffer.putChar(string.charAt(index));
+	}
+	
+	@Override
+	public void writeUTF(String string) throws UTFDataFormatException
+	{
+		ByteArrayBuilder builder = new ByteArrayBuilder(string.length() + 2);
+		builder.writeUTF(string);
+		buffer.put(builder.data, 0, builder.size);
+	}
+}
\ No newline at end of file
@@ -53,7 +53,7 @@ public class Config
 		{
 			if (file != null && file.exists() && file.canRead())
 			{
-				Consumer.ConsumptionResult<Value<?, Data>, Character> result = DataValue.getCharacterConsumer().consume(new IndexableReader(new FileReader(file)).iterator());
+				Consumer.ConsumptionResult<Value<?, Data>, Character> result = DataValue.getCharacterConsumer().consume(new IndexableReader(new FileReader(file), FillMode.PULL).iterator());
 				if (result.success())
 				{
 					configData = (Data)result.value().get();
@@ -2,44 +2,77 @@ package jogUtil;
 
 import java.util.*;
 
+/**
+ * A list of values that can also be found by their key
+ * <p>
+ *     Entries are kept in insertion order, along with the hash of each key, and an open addressing table of entry
+ *     indices is used to find keys, so lookups take constant time however many entries there are.  Only keys with the
+ *     same hash are ever compared.<br>
+ *     Putting a key that's already in the list replaces its value in place, keeping its position.  Removing an entry
+ *     moves the ones after it down and rebuilds the table straight away, so reading never changes anything and any
+ *     number of threads can read at once while nothing is being changed.
+ * </p>
+ */
 public class KeyedList<KeyType, ValueType> implements Iterable<ValueType>
 {
 	final ArrayList<KeyType> keys = new ArrayList<>();
 	final ArrayList<ValueType> values = new ArrayList<>();
+	int[] hashes = new int[8];
+	/**
+	 * Entry indices plus one, so that 0 means the slot is empty.  Always at least twice as long as the hash array.
+	 */
+	int[] table = new int[16];
 	
 	public void put(KeyType key, ValueType value)
 	{
-		int index = indexOf(key);
-		if (index == -1)
-		{
-			keys.add(key);
-			values.add(value);
-		}
-		else
+		int hash = hash(key);
+		int index = find(key, hash);
+		if (index != -1)
 		{
 			keys.set(index, key);
 			values.set(index, value);
+			return;
 		}
+		
+		int count = keys.size();
+		if (count == hashes.length)
+		{
+			hashes = Arrays.copyOf(hashes, count * 2);
+			table = new int[count * 4];
+			reinsert();
+		}
+		keys.add(key);
+		values.add(value);
+		hashes[count] = hash;
+		insert(hash, count);
 	}
 	
 	public void remove(KeyType key)
 	{
-		int index = indexOf(key);
+		int index = find(key, hash(key));
 		if (index != -1)
 		{
 			keys.remove(index);
 			values.remove(index);
+			System.arraycopy(hashes, index + 1, hashes, index, keys.size() - index);
+			Arrays.fill(table, 0);
+			reinsert();
 		}
 	}
 	
+	/**
+	 * Gives the position of a key in this list
+	 * @param key
+	 * @return the index, or -1 if the key isn't in this list.
+	 */
 	public int indexOf(KeyType key)
 	{
-		return keys.indexOf(key);
+		return find(key, hash(key));
 	}
 	
 	public ValueType get(KeyType key)
 	{
-		int index = indexOf(key);
+		int index = find(key, hash(key));
 		if (index == -1)
 			return null;
 		else
@@ -48,7 +81,7 @@ public class KeyedList<KeyType, ValueType> implements Iterable<ValueType>
 	
 	public boolean containsKey(KeyType key)
 	{
-		return keys.contains(key);
+		return find(key, hash(key)) != -1;
 	}
 	
 	public int size()
@@ -56,6 +89,39 @@ public class KeyedList<KeyType, ValueType> implements Iterable<ValueType>
 		return keys.size();
 	}
 	
+	/**
+	 * Gets the key at the given position, without allocating anything
+	 * @param index
+	 * @return the key, or null if the index is out of bounds.
+	 */
+	public KeyType keyAt(int index)
+	{
+		if (index >= 0 && index < keys.size())
+			return keys.get(index);
+		else
+			return null;
+	}
+	
+	/**
+	 * Gets the value at the given position, without allocating anything
+	 * @param index
+	 * @return the value, or null if the index is out of bounds.
+	 */
+	public ValueType valueAt(int index)
+	{
+		if (index >= 0 && index < values.size())
+			return values.get(index);
+		else
+			return null;
+	}
+	
+	/**
+	 * Gets the entry at the given position
+	 * @param index
+	 * @return
+	 * @see #keyAt(int)
+	 * @see #valueAt(int)
+	 */
 	public KeyedEntry<KeyType, ValueType> get(int index)
 	{
 		if (index >= 0 && index < size())
@@ -96,4 +162,57 @@ public class KeyedList<KeyType, ValueType> implements Iterable<ValueType>
 	{
 		return values.iterator();
 	}
+	
+	/**
+	 * Spreads the high bits of the key's hash into the low ones, since only the low ones pick a slot in the table
+	 * @param key
+	 * @return
+	 */
+	private static int hash(Object key)
+	{
+		int hash = Objects.hashCode(key);
+		return hash ^ (hash >>> 16);
+	}
+	
+	/**
+	 * Finds the entry with the given key
+	 * @param key
+	 * @param hash the key's spread hash
+	 * @return the entry index, or -1 if the key isn't in this list.
+	 */
+	private int find(Object key, int hash)
+	{
+		int[] table = this.table;
+		int mask = table.length - 1;
+		for (int slot = hash & mask; ; slot = (slot + 1) & mask)
+		{
+			int entry = table[slot] - 1;
+			if (entry == -1)
+				return -1;
+			if (hashes[entry] == hash)
+			{
+				Object candidate = keys.get(entry);
+				if (candidate == key || Objects.equals(candidate, key))
+					return entry;
+			}
+		}
+	}
+	
+	private void insert(int hash, int entry)
+	{
+		int mask = table.length - 1;
+		int slot = hash & mask;
+		while (table[slot] != 0)
+			slot = (slot + 1) & mask;
+		table[slot] = entry + 1;
+	}
+	
+	/**
+	 * Inserts every entry into an empty table
+	 */
+	private void reinsert()
+	{
+		for (int index = 0, count = keys.size(); index < count; index++)
+			insert(hashes[index], index);
+	}
 }
\ No newline at end of file
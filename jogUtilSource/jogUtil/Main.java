@@ -49,7 +49,7 @@ public class Main
 		FileWriter writer = new FileWriter(file);
 		writer.write(data.toString());
 		writer.close();
-		Consumer.ConsumptionResult<Data, Character> result = Data.characterConsumer().consume(new IndexableReader(new FileReader(file)).iterator());
+		Consumer.ConsumptionResult<Data, Character> result = Data.characterConsumer().consume(new IndexableReader(new FileReader(file), FillMode.PULL).iterator());
 		if (!result.success())
 			System.out.println("Could not parse file: " + result.description().encode(EncodingType.PLAIN));
 		Data data2 = result.value;
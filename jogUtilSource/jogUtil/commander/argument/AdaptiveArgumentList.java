@@ -100,8 +100,19 @@ public class AdaptiveArgumentList extends ArgumentList
 			return new ArrayList<>();
 		
 		ArrayList<String> completions = new ArrayList<>();
-		for (ArgumentListEntry list : lists)
-			completions.addAll(list.list.getCompletions(source.copy(), executor, data));
+		long checkpoint = source.checkpoint();
+		try
+		{
+			for (ArgumentListEntry list : lists)
+			{
+				completions.addAll(list.list.getCompletions(source, executor, data));
+				source.reset(checkpoint);
+			}
+		}
+		finally
+		{
+			source.discard(checkpoint);
+		}
 		return completions;
 	}
 	
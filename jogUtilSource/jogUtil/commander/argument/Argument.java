@@ -118,7 +118,7 @@ public interface Argument<ValueType> extends Interpretable<ValueType>
 	}
 	
 	/**
-	 * 
+	 *
 	 * @return
 	 * @see #setCompletionBehavior(CompletionBehavior)
 	 */
@@ -135,7 +135,17 @@ public interface Argument<ValueType> extends Interpretable<ValueType>
 		ArrayList<String> completions = new ArrayList<>();
 		if (canExecute(executor).success())
 		{
-			List<String> rawCompletions = argumentCompletions(source.copy(), executor, data);
+			long checkpoint = source.checkpoint();
+			List<String> rawCompletions;
+			try
+			{
+				rawCompletions = argumentCompletions(source, executor, data);
+				source.reset(checkpoint);
+			}
+			finally
+			{
+				source.discard(checkpoint);
+			}
 			if (rawCompletions == null)
 				rawCompletions = new ArrayList<>();
 			String token = StringValue.consumeString(source, ' ');
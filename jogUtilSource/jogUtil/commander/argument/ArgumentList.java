@@ -61,7 +61,16 @@ public class ArgumentList implements Interpretable<Object[]>
 		List<String> completions;
 		for (ArgumentEntry argument : arguments)
 		{
-			completions = argument.getCompletions(source.copy(), executor);
+			long checkpoint = source.checkpoint();
+			try
+			{
+				completions = argument.getCompletions(source, executor);
+				source.reset(checkpoint);
+			}
+			finally
+			{
+				source.discard(checkpoint);
+			}
 			/*
 			 * we want to check if this argument can be interpreted successfully
 			 * 		if yes, then we need to verify that the source ends with a space character
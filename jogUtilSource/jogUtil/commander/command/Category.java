@@ -181,37 +181,18 @@ public class Category extends CommandComponent
 				return new ReturnResult<>(true);
 			}
 			
-			int start = source.position();
-			for (CommandComponent component : this)
+			long start = source.checkpoint();
+			try
 			{
-				//we can ignore any components that this executor can't execute
-				if (!component.canExecute(contextSource).success())
-					continue;
-				
-				source.setPosition(start);
-				//if we match a valid component, then we want to interpret that component
-				if (StringValue.consumeSequence(source, component.name(), false))
+				for (CommandComponent component : this)
 				{
-					if (!ensureValidEnd(component, source))
+					//we can ignore any components that this executor can't execute
+					if (!component.canExecute(contextSource).success())
 						continue;
 					
-					return component.interpret(source, contextSource);
-				}
-			}
-			
-			//if we don't match any components by proper name, then we check aliases
-			for (CommandComponent component : this)
-			{
-				//we can ignore any components that this executor can't execute
-				if (!component.canExecute(contextSource).success())
-					continue;
-				
-				source.setPosition(start);
-				//if we match a valid component, then we want to interpret that component
-				for (Iterator<String> aliasIterator = component.aliasIterator(); aliasIterator.hasNext();)
-				{
-					String alias = aliasIterator.next();
-					if (StringValue.consumeSequence(source, alias, false))
+					source.reset(start);
+					//if we match a valid component, then we want to interpret that component
+					if (StringValue.consumeSequence(source, component.name(), false))
 					{
 						if (!ensureValidEnd(component, source))
 							continue;
@@ -219,6 +200,32 @@ public class Category extends CommandComponent
 						return component.interpret(source, contextSource);
 					}
 				}
+				
+				//if we don't match any components by proper name, then we check aliases
+				for (CommandComponent component : this)
+				{
+					//we can ignore any components that this executor can't execute
+					if (!component.canExecute(contextSource).success())
+						continue;
+					
+					//if we match a valid component, then we want to interpret that component
+					for (Iterator<String> aliasIterator = component.aliasIterator(); aliasIterator.hasNext();)
+					{
+						String alias = aliasIterator.next();
+						source.reset(start);
+						if (StringValue.consumeSequence(source, alias, false))
+						{
+							if (!ensureValidEnd(component, source))
+								continue;
+							
+							return component.interpret(source, contextSource);
+						}
+					}
+				}
+			}
+			finally
+			{
+				source.discard(start);
 			}
 			
 			//if we don't match any components, then the input was invalid
@@ -255,27 +262,34 @@ public class Category extends CommandComponent
 				return null;
 			
 			ArrayList<String> completions = new ArrayList<>();
-			int start = source.position();
-			for (CommandComponent component : this)
+			long start = source.checkpoint();
+			try
 			{
-				//we can ignore any components that this executor can't execute
-				if (!component.canExecute(contextSource).success())
-					continue;
-				
-				completions.add(component.name());
-				for (Iterator<String> aliasIterator = component.aliasIterator(); aliasIterator.hasNext();)
-					completions.add(aliasIterator.next());
-				
-				source.setPosition(start);
-				//if we already match a valid component, then we want to give that component's completions
-				if (StringValue.consumeSequence(source, component.name(), false))
+				for (CommandComponent component : this)
 				{
-					if (!ensureValidEnd(component, source))
+					//we can ignore any components that this executor can't execute
+					if (!component.canExecute(contextSource).success())
 						continue;
 					
-					return component.getCompletions(source, contextSource);
+					completions.add(component.name());
+					for (Iterator<String> aliasIterator = component.aliasIterator(); aliasIterator.hasNext();)
+						completions.add(aliasIterator.next());
+					
+					source.reset(start);
+					//if we already match a valid component, then we want to give that component's completions
+					if (StringValue.consumeSequence(source, component.name(), false))
+					{
+						if (!ensureValidEnd(component, source))
+							continue;
+						
+						return component.getCompletions(source, contextSource);
+					}
 				}
 			}
+			finally
+			{
+				source.discard(start);
+			}
 			return completions;
 		}
 		
@@ -324,7 +338,7 @@ public class Category extends CommandComponent
 			{
 				CommandComponent component;
 				if (index < category.components.size())
-					component = category.components.get(index).getValue();
+					component = category.components.valueAt(index);
 				else if (index - category.components.size() < contextualizedComponents.size())
 					component = contextualizedComponents.get(index - category.components.size());
 				else
@@ -0,0 +1,208 @@
+package jogUtil.data;
+
+import jogUtil.*;
+import jogUtil.data.values.*;
+import jogUtil.indexable.*;
+import jogUtil.richText.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * The type names and value names shared by an entire document in a format with dictionaries
+ * <p>
+ *     The dictionary is written once at the start of the root Data object's contents, and everything nested inside
+ *     it refers to types and names by their number in the dictionary.  Entries are numbered from most to least
+ *     used, so the most common ones get the shortest numbers.<br>
+ *     Names read from a dictionary are shared by every value with that name, rather than decoded again for each one.
+ * </p>
+ * @see ByteFormat#dictionaries(boolean)
+ */
+final class ByteDictionary
+{
+	final TypeRegistry.RegisteredType<?, ?>[] types;
+	final String[] names;
+	final HashMap<TypeRegistry.RegisteredType<?, ?>, Integer> typeNumbers;
+	final HashMap<String, Integer> nameNumbers;
+	List<Consumer<? extends Value<?, ?>, Byte>> consumers = null;
+	int byteSize = -1;
+	
+	ByteDictionary(TypeRegistry.RegisteredType<?, ?>[] types, String[] names)
+	{
+		this.types = types;
+		this.names = names;
+		typeNumbers = new HashMap<>(types.length * 2);
+		for (int index = 0; index < types.length; index++)
+			typeNumbers.put(types[index], index);
+		nameNumbers = new HashMap<>(names.length * 2);
+		for (int index = 0; index < names.length; index++)
+			nameNumbers.put(names[index], index);
+	}
+	
+	/**
+	 * Gives a type's number in this dictionary
+	 * @param type
+	 * @return the type's number, or -1 if it isn't in this dictionary
+	 */
+	int typeNumber(TypeRegistry.RegisteredType<?, ?> type)
+	{
+		return typeNumbers.getOrDefault(type, -1);
+	}
+	
+	/**
+	 * Gives a name's number in this dictionary
+	 * @param name
+	 * @return the name's number, or -1 if it isn't in this dictionary
+	 */
+	int nameNumber(String name)
+	{
+		return nameNumbers.getOrDefault(name, -1);
+	}
+	
+	/**
+	 * Gives the byte consumers for each type in this dictionary
+	 * <p>
+	 *     The consumers are created once, and reused by every Data object in the document.
+	 * </p>
+	 * @param format the format the document is being read in, with this dictionary
+	 * @return
+	 */
+	List<Consumer<? extends Value<?, ?>, Byte>> consumers(ByteFormat format)
+	{
+		if (consumers == null)
+		{
+			ArrayList<Consumer<? extends Value<?, ?>, Byte>> created = new ArrayList<>(types.length);
+			for (TypeRegistry.RegisteredType<?, ?> type : types)
+				created.add(type.byteConsumer(format));
+			consumers = Collections.unmodifiableList(created);
+		}
+		return consumers;
+	}
+	
+	/**
+	 * Builds a dictionary of every type and name used in a Data object and everything nested inside it
+	 * @param data
+	 * @return
+	 */
+	static ByteDictionary collect(Data data)
+	{
+		LinkedHashMap<TypeRegistry.RegisteredType<?, ?>, int[]> typeCounts = new LinkedHashMap<>();
+		LinkedHashMap<String, int[]> nameCounts = new LinkedHashMap<>();
+		collect(data, typeCounts, nameCounts);
+		return new ByteDictionary(byUse(typeCounts).toArray(new TypeRegistry.RegisteredType<?, ?>[0]),
+								  byUse(nameCounts).toArray(new String[0]));
+	}
+	
+	private static void collect(Data data, LinkedHashMap<TypeRegistry.RegisteredType<?, ?>, int[]> typeCounts,
+								LinkedHashMap<String, int[]> nameCounts)
+	{
+		for (Value<?, ?> value : data)
+		{
+			TypeRegistry.RegisteredType<?, ?> type = value.type();
+			if (type == null)
+				throw new RuntimeException("Can not convert data to bytes: " + value.getClass() + " isn't a registered type.");
+			typeCounts.computeIfAbsent(type, key -> new int[1])[0]++;
+			nameCounts.computeIfAbsent(value.name, key -> new int[1])[0]++;
+			collect(value, typeCounts, nameCounts);
+		}
+	}
+	
+	private static void collect(Value<?, ?> value, LinkedHashMap<TypeRegistry.RegisteredType<?, ?>, int[]> typeCounts,
+								LinkedHashMap<String, int[]> nameCounts)
+	{
+		if (value instanceof DataValue dataValue)
+			collect(dataValue.get(), typeCounts, nameCounts);
+		else if (value instanceof ListValue<?> list)
+		{
+			typeCounts.computeIfAbsent(list.elementType(), key -> new int[1])[0]++;
+			if (!list.packed())
+			{
+				for (Value<?, ?> element : list)
+					collect(element, typeCounts, nameCounts);
+			}
+		}
+	}
+	
+	private static <Key> ArrayList<Key> byUse(LinkedHashMap<Key, int[]> counts)
+	{
+		ArrayList<Key> keys = new ArrayList<>(counts.keySet());
+		keys.sort(Comparator.comparingInt(key -> -counts.get(key)[0]));
+		return keys;
+	}
+	
+	/**
+	 * Writes this dictionary
+	 * @param output
+	 * @param format the document's format, without a dictionary
+	 * @throws IOException
+	 */
+	void writeTo(DataOutput output, ByteFormat format) throws IOException
+	{
+		format.writeCount(output, types.length);
+		for (TypeRegistry.RegisteredType<?, ?> type : types)
+			format.writeType(output, type);
+		format.writeCount(output, names.length);
+		for (String name : names)
+			format.writeString(output, name);
+	}
+	
+	int byteSize(ByteFormat format)
+	{
+		if (byteSize == -1)
+		{
+			int size = format.countSize(types.length) + format.countSize(names.length);
+			for (TypeRegistry.RegisteredType<?, ?> type : types)
+				size += format.typeSize(type);
+			for (String name : names)
+				size += format.stringSize(name);
+			byteSize = size;
+		}
+		return byteSize;
+	}
+	
+	/**
+	 * Reads a dictionary written by writeTo()
+	 * @param source
+	 * @param format the document's format, without a dictionary
+	 * @return
+	 */
+	static Consumer.ConsumptionResult<ByteDictionary, Byte> consume(Indexer<Byte> source, ByteFormat format)
+	{
+		Consumer.ConsumptionResult<Integer, Byte> typeCountResult = format.consumeCount(source);
+		if (!typeCountResult.success())
+			return new Consumer.ConsumptionResult<>(source, RichStringBuilder
+					.start("Could not parse dictionary type count: ")
+					.append(typeCountResult.description()).build());
+		if (typeCountResult.value() < 0)
+			return new Consumer.ConsumptionResult<>(source, "Invalid dictionary type count.");
+		TypeRegistry.RegisteredType<?, ?>[] types = new TypeRegistry.RegisteredType<?, ?>[typeCountResult.value()];
+		for (int index = 0; index < types.length; index++)
+		{
+			Consumer.ConsumptionResult<TypeRegistry.RegisteredType<?, ?>, Byte> typeResult = format.consumeType(source);
+			if (!typeResult.success())
+				return new Consumer.ConsumptionResult<>(source, RichStringBuilder
+						.start("Could not parse dictionary type #" + index + ": ")
+						.append(typeResult.description()).build());
+			types[index] = typeResult.value();
+		}
+		
+		Consumer.ConsumptionResult<Integer, Byte> nameCountResult = format.consumeCount(source);
+		if (!nameCountResult.success())
+			return new Consumer.ConsumptionResult<>(source, RichStringBuilder
+					.start("Could not parse dictionary name count: ")
+					.append(nameCountResult.description()).build());
+		if (nameCountResult.value() < 0)
+			return new Consumer.ConsumptionResult<>(source, "Invalid dictionary name count.");
+		String[] names = new String[nameCountResult.value()];
+		for (int index = 0; index < names.length; index++)
+		{
+			Consumer.ConsumptionResult<String, Byte> nameResult = format.consumeString(source);
+			if (!nameResult.success())
+				return new Consumer.ConsumptionResult<>(source, RichStringBuilder
+						.start("Could not parse dictionary name #" + index + ": ")
+						.append(nameResult.description()).build());
+			names[index] = nameResult.value();
+		}
+		return new Consumer.ConsumptionResult<>(new ByteDictionary(types, names), source);
+	}
+}
\ No newline at end of file
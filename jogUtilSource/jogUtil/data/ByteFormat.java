@@ -0,0 +1,672 @@
+package jogUtil.data;
+
+import jogUtil.*;
+import jogUtil.data.values.*;
+import jogUtil.indexable.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+
+/**
+ * Describes how Values and Data are encoded into bytes
+ * <p>
+ *     The legacy format is the original encoding, with fixed width counts and lengths and full type names.  It has
+ *     no header, and is still what toByteData() and writeTo() produce by default.<br>
+ *     The compact format writes counts, lengths and type numbers as variable length numbers, and refers to the
+ *     default types by a numeric id instead of their name.  It can optionally write Short, Integer and Long values
+ *     as zigzag encoded variable length numbers, strings with a length prefix instead of a 0 terminator, lists of
+ *     fixed width numbers as a single block of packed primitives, an offset table at the start of each Data object
+ *     so that LazyData can decode values individually, and a single dictionary of type names and value names for
+ *     the whole document.
+ *     Compact Data is always preceded by a header describing its format, so Data.byteConsumer() can read either
+ *     format.
+ * </p>
+ * <p>
+ *     Variable length numbers are little-endian base 128, with the high bit of each byte set when another byte
+ *     follows.
+ * </p>
+ */
+public final class ByteFormat
+{
+	/**
+	 * Bytes that begin the header of compact data
+	 * <p>
+	 *     Legacy data begins with the size of its type index, which can never be negative, so the first byte of a
+	 *     legacy payload can never match the first byte here.
+	 * </p>
+	 */
+	static final byte[] magic = {(byte)0xD7, 'j', 'D'};
+	static final int legacyVersion = 1;
+	static final int compactVersion = 2;
+	static final int zigZagFlag = 1;
+	static final int lengthPrefixedStringsFlag = 2;
+	static final int offsetTablesFlag = 4;
+	static final int packedListsFlag = 8;
+	static final int dictionariesFlag = 16;
+	static final int knownFlags = zigZagFlag | lengthPrefixedStringsFlag | offsetTablesFlag | packedListsFlag
+								  | dictionariesFlag;
+	
+	public static final ByteFormat LEGACY = new ByteFormat(legacyVersion, 0);
+	public static final ByteFormat COMPACT = new ByteFormat(compactVersion, zigZagFlag | lengthPrefixedStringsFlag);
+	
+	final int version;
+	final int flags;
+	/**
+	 * The dictionary of the document currently being written or read
+	 * <p>
+	 *     Formats with dictionaries enabled don't have one until the root Data object binds it.
+	 * </p>
+	 */
+	final ByteDictionary dictionary;
+	
+	private ByteFormat(int version, int flags)
+	{
+		this(version, flags, null);
+	}
+	
+	private ByteFormat(int version, int flags, ByteDictionary dictionary)
+	{
+		this.version = version;
+		this.flags = flags;
+		this.dictionary = dictionary;
+	}
+	
+	/**
+	 * Creates a compact format with no options other than zigzag enabled
+	 * @param zigZag whether Short, Integer and Long values should be written as variable length numbers
+	 * @return
+	 */
+	public static ByteFormat compact(boolean zigZag)
+	{
+		return new ByteFormat(compactVersion, zigZag ? zigZagFlag : 0);
+	}
+	
+	/**
+	 * Finds the format passed to a byte consumer
+	 * <p>
+	 *     Byte consumers that accept an array of Objects are given the format they should read in it.  If there is
+	 *     no format in the array the legacy format is used.
+	 * </p>
+	 * @param data
+	 * @return
+	 */
+	public static ByteFormat of(Object[] data)
+	{
+		if (data != null)
+		{
+			for (Object entry : data)
+			{
+				if (entry instanceof ByteFormat format)
+					return format;
+			}
+		}
+		return LEGACY;
+	}
+	
+	/**
+	 * Provides the data to pass to a byte consumer so that it reads this format
+	 * @return
+	 */
+	public Object[] consumerData()
+	{
+		return new Object[] {this};
+	}
+	
+	public int version()
+	{
+		return version;
+	}
+	
+	public boolean compact()
+	{
+		return version >= compactVersion;
+	}
+	
+	public boolean zigZag()
+	{
+		return (flags & zigZagFlag) != 0;
+	}
+	
+	/**
+	 * Creates a compact format with the same options as this one, but with zigzag enabled or disabled
+	 * @param zigZag
+	 * @return
+	 */
+	public ByteFormat zigZag(boolean zigZag)
+	{
+		return with(zigZagFlag, zigZag);
+	}
+	
+	public boolean lengthPrefixedStrings()
+	{
+		return (flags & lengthPrefixedStringsFlag) != 0;
+	}
+	
+	/**
+	 * Creates a compact format with the same options as this one, but with length prefixed strings enabled or
+	 * disabled
+	 * <p>
+	 *     Length prefixed strings are written as their length in bytes followed by their UTF-8 encoding.  They can
+	 *     be decoded in one step and skipped without being read, and may contain 0 characters.
+	 * </p>
+	 * @param lengthPrefixedStrings
+	 * @return
+	 */
+	public ByteFormat lengthPrefixedStrings(boolean lengthPrefixedStrings)
+	{
+		return with(lengthPrefixedStringsFlag, lengthPrefixedStrings);
+	}
+	
+	public boolean offsetTables()
+	{
+		return (flags & offsetTablesFlag) != 0;
+	}
+	
+	/**
+	 * Creates a compact format with the same options as this one, but with offset tables enabled or disabled
+	 * <p>
+	 *     Each Data object begins with a table giving the hash of each value's name along with its type, offset and
+	 *     length.  This lets LazyData find and decode individual values without reading the rest.
+	 * </p>
+	 * @param offsetTables
+	 * @return
+	 * @see LazyData
+	 */
+	public ByteFormat offsetTables(boolean offsetTables)
+	{
+		return with(offsetTablesFlag, offsetTables);
+	}
+	
+	public boolean packedLists()
+	{
+		return (flags & packedListsFlag) != 0;
+	}
+	
+	/**
+	 * Creates a compact format with the same options as this one, but with packed lists enabled or disabled
+	 * <p>
+	 *     Lists of Bytes, Booleans, Shorts, Integers, Floats, Longs and Doubles are written as a single block of
+	 *     fixed width big-endian primitives, with Booleans packed 8 to a byte.  They're read back into packed
+	 *     ListValues, which don't create a Value for each element.
+	 * </p>
+	 * @param packedLists
+	 * @return
+	 * @see jogUtil.data.values.PackedList
+	 */
+	public ByteFormat packedLists(boolean packedLists)
+	{
+		return with(packedListsFlag, packedLists);
+	}
+	
+	public boolean dictionaries()
+	{
+		return (flags & dictionariesFlag) != 0;
+	}
+	
+	/**
+	 * Creates a compact format with the same options as this one, but with dictionaries enabled or disabled
+	 * <p>
+	 *     The root Data object begins with a dictionary of every type and value name used anywhere in the document,
+	 *     and everything within it refers to types and names by their number in the dictionary instead.  Nested Data
+	 *     objects don't have their own type index, their values' type numbers refer to the dictionary directly.<br>
+	 *     This greatly reduces the size of documents that repeat the same names many times, such as lists of
+	 *     records.
+	 * </p>
+	 * @param dictionaries
+	 * @return
+	 */
+	public ByteFormat dictionaries(boolean dictionaries)
+	{
+		return with(dictionariesFlag, dictionaries);
+	}
+	
+	/**
+	 * Checks if this format has dictionaries enabled, but hasn't been given the document's dictionary yet
+	 * @return
+	 */
+	boolean needsDictionary()
+	{
+		return dictionaries() && dictionary == null;
+	}
+	
+	/**
+	 * Creates a copy of this format that reads and writes with the given document dictionary
+	 * @param dictionary
+	 * @return
+	 */
+	ByteFormat bind(ByteDictionary dictionary)
+	{
+		return new ByteFormat(version, flags, dictionary);
+	}
+	
+	/**
+	 * Gives this format without its document dictionary
+	 * @return
+	 */
+	ByteFormat unbound()
+	{
+		return dictionary == null ? this : new ByteFormat(version, flags);
+	}
+	
+	private ByteFormat with(int flag, boolean enabled)
+	{
+		return new ByteFormat(compactVersion, enabled ? flags | flag : flags & ~flag);
+	}
+	
+	/**
+	 * The number of bytes writeHeader() writes for this format
+	 * @return
+	 */
+	public int headerSize()
+	{
+		return compact() ? magic.length + 2 : 0;
+	}
+	
+	/**
+	 * Writes the header that identifies this format
+	 * <p>
+	 *     Nothing is written for the legacy format.
+	 * </p>
+	 * @param output
+	 * @throws IOException
+	 */
+	public void writeHeader(DataOutput output) throws IOException
+	{
+		if (!compact())
+			return;
+		output.write(magic);
+		output.writeByte(version);
+		output.writeByte(flags);
+	}
+	
+	/**
+	 * Reads a format header
+	 * <p>
+	 *     If the source doesn't begin with a header then nothing is consumed, and the legacy format is returned.
+	 * </p>
+	 * @param source
+	 * @return
+	 */
+	public static Consumer.ConsumptionResult<ByteFormat, Byte> consumeHeader(Indexer<Byte> source)
+	{
+		if (source.atEnd() || source.get() != magic[0])
+			return new Consumer.ConsumptionResult<>(LEGACY, source);
+		
+		ArrayList<Byte> header = source.allNext(magic.length + 2);
+		if (header == null)
+			return new Consumer.ConsumptionResult<>(source, "Incomplete format header.");
+		for (int index = 1; index < magic.length; index++)
+		{
+			if (header.get(index) != magic[index])
+				return new Consumer.ConsumptionResult<>(source, "Invalid format header.");
+		}
+		int version = header.get(magic.length) & 0xFF;
+		int flags = header.get(magic.length + 1) & 0xFF;
+		if (version != compactVersion)
+			return new Consumer.ConsumptionResult<>(source, "Unsupported format version " + version + ".");
+		if ((flags & ~knownFlags) != 0)
+			return new Consumer.ConsumptionResult<>(source, "Unsupported format flags " + Integer.toBinaryString(flags) + ".");
+		return new Consumer.ConsumptionResult<>(new ByteFormat(version, flags), source);
+	}
+	
+	/**
+	 * Writes a count or length
+	 * <p>
+	 *     Counts are written as variable length numbers in the compact format, and as a full int otherwise.
+	 * </p>
+	 * @param output
+	 * @param count
+	 * @throws IOException
+	 */
+	public void writeCount(DataOutput output, int count) throws IOException
+	{
+		if (compact())
+			writeVarInt(output, count);
+		else
+			output.writeInt(count);
+	}
+	
+	public int countSize(int count)
+	{
+		return compact() ? varIntSize(count) : 4;
+	}
+	
+	public Consumer.ConsumptionResult<Integer, Byte> consumeCount(Indexer<Byte> source)
+	{
+		if (compact())
+			return consumeVarInt(source);
+		else
+			return IntegerValue.simpleByteConsume(source);
+	}
+	
+	/**
+	 * Writes a string
+	 * <p>
+	 *     Strings are 0 terminated unless this format uses length prefixed strings.  A null string is written the same
+	 *     way as an empty one, in either case.
+	 * </p>
+	 * @param output
+	 * @param string
+	 * @throws IOException
+	 */
+	public void writeString(DataOutput output, String string) throws IOException
+	{
+		if (lengthPrefixedStrings())
+		{
+			byte[] data = string == null ? new byte[0] : string.getBytes(StandardCharsets.UTF_8);
+			writeVarInt(output, data.length);
+			output.write(data);
+		}
+		else
+			StringValue.writeByteData(string, output);
+	}
+	
+	public int stringSize(String string)
+	{
+		if (lengthPrefixedStrings())
+		{
+			int length = StringValue.encodedLength(string);
+			return varIntSize(length) + length;
+		}
+		else
+			return StringValue.byteSize(string);
+	}
+	
+	public Consumer.ConsumptionResult<String, Byte> consumeString(Indexer<Byte> source)
+	{
+		if (!lengthPrefixedStrings())
+			return StringValue.primitiveByteConsume(source);
+		
+		Consumer.ConsumptionResult<Integer, Byte> lengthResult = consumeVarInt(source);
+		if (!lengthResult.success())
+			return new Consumer.ConsumptionResult<>(source, lengthResult.description());
+		int length = lengthResult.value();
+		if (length < 0)
+			return new Consumer.ConsumptionResult<>(source, "Invalid string length.");
+		
+		byte[] data;
+		if (source instanceof ByteIndexer byteSource && byteSource.hasBytes(length))
+			data = byteSource.readBytes(length);
+		else
+		{
+			ArrayList<Byte> bytes = source.allNext(length);
+			if (bytes == null)
+				return new Consumer.ConsumptionResult<>(source, "Not enough available data.");
+			data = ByteArrayBuilder.toPrimitive(bytes.toArray(new Byte[0]));
+		}
+		return new Consumer.ConsumptionResult<>(new String(data, StandardCharsets.UTF_8), source);
+	}
+	
+	/**
+	 * Skips over a string without decoding it
+	 * <p>
+	 *     Length prefixed strings are skipped without reading their contents, 0 terminated strings have to be
+	 *     scanned for their terminator.
+	 * </p>
+	 * @param source
+	 * @return whether the whole string was skipped
+	 */
+	public boolean skipString(Indexer<Byte> source)
+	{
+		if (lengthPrefixedStrings())
+		{
+			Consumer.ConsumptionResult<Integer, Byte> lengthResult = consumeVarInt(source);
+			if (!lengthResult.success())
+				return false;
+			source.skip(lengthResult.value());
+			return source.position() <= source.size();
+		}
+		
+		if (source instanceof ByteIndexer byteSource && !byteSource.filtered())
+		{
+			int length = byteSource.indexOf((byte)0);
+			if (length == -1)
+				return false;
+			byteSource.skip(length + 1);
+			return true;
+		}
+		while (!source.atEnd())
+		{
+			if (source.next() == 0)
+				return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Writes the name of a value in a Data object
+	 * <p>
+	 *     With a dictionary the name is written as one more than its number in the dictionary, or 0 followed by the
+	 *     name if it isn't in the dictionary.  Otherwise it's written as a string.
+	 * </p>
+	 * @param output
+	 * @param name
+	 * @throws IOException
+	 */
+	public void writeName(DataOutput output, String name) throws IOException
+	{
+		if (dictionary != null)
+		{
+			int number = dictionary.nameNumber(name);
+			writeVarInt(output, number + 1);
+			if (number != -1)
+				return;
+		}
+		writeString(output, name);
+	}
+	
+	public int nameSize(String name)
+	{
+		if (dictionary != null)
+		{
+			int number = dictionary.nameNumber(name);
+			if (number != -1)
+				return varIntSize(number + 1);
+			return 1 + stringSize(name);
+		}
+		return stringSize(name);
+	}
+	
+	public Consumer.ConsumptionResult<String, Byte> consumeName(Indexer<Byte> source)
+	{
+		if (dictionary != null)
+		{
+			Consumer.ConsumptionResult<Integer, Byte> numberResult = consumeVarInt(source);
+			if (!numberResult.success())
+				return new Consumer.ConsumptionResult<>(source, numberResult.description());
+			int number = numberResult.value();
+			if (number != 0)
+			{
+				if (number < 0 || number > dictionary.names.length)
+					return new Consumer.ConsumptionResult<>(source, "Name number " + number + " is not in the dictionary.");
+				return new Consumer.ConsumptionResult<>(dictionary.names[number - 1], source);
+			}
+		}
+		return consumeString(source);
+	}
+	
+	/**
+	 * Writes a reference to a registered type
+	 * <p>
+	 *     The legacy format always writes the type's name.  The compact format writes the type's compact id, and
+	 *     only follows it with the name for types without one.<br>
+	 *     With a dictionary the type is written as one more than its number in the dictionary, or 0 followed by the
+	 *     type as it would be written without a dictionary.
+	 * </p>
+	 * @param output
+	 * @param type
+	 * @throws IOException
+	 * @see TypeRegistry#compactId(TypeRegistry.RegisteredType)
+	 */
+	public void writeType(DataOutput output, TypeRegistry.RegisteredType<?, ?> type) throws IOException
+	{
+		if (dictionary != null)
+		{
+			int number = dictionary.typeNumber(type);
+			writeVarInt(output, number + 1);
+			if (number != -1)
+				return;
+		}
+		if (compact())
+		{
+			int id = TypeRegistry.compactId(type);
+			writeVarInt(output, id);
+			if (id != 0)
+				return;
+		}
+		writeString(output, type.name());
+	}
+	
+	public int typeSize(TypeRegistry.RegisteredType<?, ?> type)
+	{
+		if (dictionary != null)
+		{
+			int number = dictionary.typeNumber(type);
+			if (number != -1)
+				return varIntSize(number + 1);
+			return 1 + unbound().typeSize(type);
+		}
+		if (compact())
+		{
+			int id = TypeRegistry.compactId(type);
+			if (id != 0)
+				return varIntSize(id);
+			return 1 + stringSize(type.name());
+		}
+		return stringSize(type.name());
+	}
+	
+	public Consumer.ConsumptionResult<TypeRegistry.RegisteredType<?, ?>, Byte> consumeType(Indexer<Byte> source)
+	{
+		if (dictionary != null)
+		{
+			Consumer.ConsumptionResult<Integer, Byte> numberResult = consumeVarInt(source);
+			if (!numberResult.success())
+				return new Consumer.ConsumptionResult<>(source, numberResult.description());
+			int number = numberResult.value();
+			if (number != 0)
+			{
+				if (number < 0 || number > dictionary.types.length)
+					return new Consumer.ConsumptionResult<>(source, "Type number " + number + " is not in the dictionary.");
+				return new Consumer.ConsumptionResult<>(dictionary.types[number - 1], source);
+			}
+		}
+		if (compact())
+		{
+			Consumer.ConsumptionResult<Integer, Byte> idResult = consumeVarInt(source);
+			if (!idResult.success())
+				return new Consumer.ConsumptionResult<>(source, idResult.description());
+			int id = idResult.value();
+			if (id != 0)
+			{
+				TypeRegistry.RegisteredType<?, ?> type = TypeRegistry.fromCompactId(id);
+				if (type == null)
+					return new Consumer.ConsumptionResult<>(source, id + " is not a known type id.");
+				return new Consumer.ConsumptionResult<>(type, source);
+			}
+		}
+		
+		Consumer.ConsumptionResult<String, Byte> nameResult = consumeString(source);
+		if (!nameResult.success())
+			return new Consumer.ConsumptionResult<>(source, nameResult.description());
+		TypeRegistry.RegisteredType<?, ?> type = TypeRegistry.get(nameResult.value());
+		if (type == null)
+			return new Consumer.ConsumptionResult<>(source, "\"" + nameResult.value() + "\" is not a registered type.");
+		return new Consumer.ConsumptionResult<>(type, source);
+	}
+	
+	public static void writeVarInt(DataOutput output, int value) throws IOException
+	{
+		writeVarLong(output, value & 0xFFFFFFFFL);
+	}
+	
+	public static void writeVarLong(DataOutput output, long value) throws IOException
+	{
+		while ((value & ~0x7FL) != 0)
+		{
+			output.writeByte((int)(value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		output.writeByte((int)value);
+	}
+	
+	public static int varIntSize(int value)
+	{
+		return varLongSize(value & 0xFFFFFFFFL);
+	}
+	
+	public static int varLongSize(long value)
+	{
+		return Math.max(1, (64 - Long.numberOfLeadingZeros(value) + 6) / 7);
+	}
+	
+	public static Consumer.ConsumptionResult<Integer, Byte> consumeVarInt(Indexer<Byte> source)
+	{
+		Consumer.ConsumptionResult<Long, Byte> result = consumeVarLong(source);
+		if (!result.success())
+			return new Consumer.ConsumptionResult<>(source, result.description());
+		if ((result.value() & ~0xFFFFFFFFL) != 0)
+			return new Consumer.ConsumptionResult<>(source, "Variable length number is too large for an int.");
+		return new Consumer.ConsumptionResult<>((int)(long)result.value(), source);
+	}
+	
+	public static Consumer.ConsumptionResult<Long, Byte> consumeVarLong(Indexer<Byte> source)
+	{
+		ByteIndexer byteSource = source instanceof ByteIndexer indexer ? indexer : null;
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7)
+		{
+			byte current;
+			if (byteSource != null && byteSource.hasBytes(1))
+				current = byteSource.readByte();
+			else if (!source.atEnd())
+				current = source.next();
+			else
+				return new Consumer.ConsumptionResult<>(source, "Not enough available data.");
+			
+			value |= (long)(current & 0x7F) << shift;
+			if ((current & 0x80) == 0)
+				return new Consumer.ConsumptionResult<>(value, source);
+		}
+		return new Consumer.ConsumptionResult<>(source, "Variable length number is too long.");
+	}
+	
+	/**
+	 * Maps signed numbers onto unsigned ones so that numbers close to zero stay small
+	 * @param value
+	 * @return
+	 */
+	public static long zigZag(long value)
+	{
+		return (value << 1) ^ (value >> 63);
+	}
+	
+	public static long unZigZag(long value)
+	{
+		return (value >>> 1) ^ -(value & 1);
+	}
+	
+	@Override
+	public boolean equals(Object object)
+	{
+		return object instanceof ByteFormat format && format.version == version && format.flags == flags
+			   && format.dictionary == dictionary;
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		return version * 31 + flags;
+	}
+	
+	@Override
+	public String toString()
+	{
+		if (!compact())
+			return "legacy";
+		return "compact" + (zigZag() ? " zigzag" : "") + (lengthPrefixedStrings() ? " length-prefixed" : "")
+			   + (offsetTables() ? " offset-tables" : "") + (packedLists() ? " packed-lists" : "")
+			   + (dictionaries() ? " dictionaries" : "");
+	}
+}
\ No newline at end of file
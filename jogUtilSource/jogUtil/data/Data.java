@@ -5,11 +5,19 @@ import jogUtil.data.values.*;
 import jogUtil.indexable.*;
 import jogUtil.richText.*;
 
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
 import java.util.*;
 
 public class Data implements Iterable<Value<?, ?>>
 {
 	final KeyedList<String, Value<?, ?>> values = new KeyedList<>();
+	Value<?, ?> container = null;
+	int byteSize = -1;
+	ByteFormat byteSizeFormat = null;
+	ByteFormat dictionaryFormat = null;
 	
 	public int size()
 	{
@@ -30,8 +38,9 @@ public class Data implements Iterable<Value<?, ?>>
 	 * </p>
 	 * <p>
 	 *     If a value has already been entered into this object with the same name, it will be overwritten
-	 *     with the new value. Any external references to the old value will remain intact, and the old
-	 *     value can still be used externally but will no longer consider this object to be it's parent.
+	 *     with the new value, which takes the old value's place in the order of this object's values. Any
+	 *     external references to the old value will remain intact, and the old value can still be used
+	 *     externally but will no longer consider this object to be it's parent.
 	 * </p>
 	 * @param name
 	 * @param value
@@ -45,17 +54,18 @@ public class Data implements Iterable<Value<?, ?>>
 		if (value.parent != null)
 			value = value.copy();
 		
-		if (values.containsKey(name))
+		Value<?, ?> oldValue = values.get(name);
+		if (oldValue != null)
 		{
-			Value<?, ?> oldValue = values.get(name);
 			oldValue.parent = null;
 			oldValue.name = null;
-			values.remove(name);
 		}
 		
+		//replacing in place keeps overwriting a value constant time, however many values there are
 		values.put(name, value);
 		value.parent = this;
 		value.name = name;
+		invalidateByteSize();
 		return value;
 	}
 	
@@ -73,8 +83,9 @@ public class Data implements Iterable<Value<?, ?>>
 	 */
 	public Value<?, ?> get(String name, Value<?, ?> defaultValue)
 	{
-		if (values.containsKey(name))
-			return values.get(name);
+		Value<?, ?> value = values.get(name);
+		if (value != null)
+			return value;
 		else
 			return put(name, defaultValue);
 	}
@@ -94,12 +105,13 @@ public class Data implements Iterable<Value<?, ?>>
 	 */
 	public <Type> Type getValue(String name, Value<Type, ?> defaultValue)
 	{
-		if (values.containsKey(name))
+		Value<?, ?> stored = values.get(name);
+		if (stored != null)
 		{
 			Type value;
 			try
 			{
-				value = (Type)values.get(name).get();
+				value = (Type)stored.get();
 			}
 			catch (ClassCastException e)
 			{
@@ -147,12 +159,13 @@ public class Data implements Iterable<Value<?, ?>>
 	 */
 	public Value<?, ?> remove(String name)
 	{
-		if (values.containsKey(name))
+		Value<?, ?> value = values.get(name);
+		if (value != null)
 		{
-			Value<?, ?> value = values.get(name);
 			values.remove(name);
 			value.parent = null;
 			value.name = null;
+			invalidateByteSize();
 			return value;
 		}
 		else
@@ -199,11 +212,8 @@ public class Data implements Iterable<Value<?, ?>>
 	public String[] names()
 	{
 		String[] names = new String[values.size()];
-		for (int index = 0; index < values.size(); index++)
-		{
-			names[index] = values.get(index).getKey();
-			index++;
-		}
+		for (int index = 0; index < names.length; index++)
+			names[index] = values.keyAt(index);
 		return names;
 	}
 	
@@ -214,16 +224,17 @@ public class Data implements Iterable<Value<?, ?>>
 		builder.append("{\r\n");
 		for (int valueIndex = 0; valueIndex < values.size(); valueIndex++)
 		{
-			KeyedList.KeyedEntry<String, Value<?, ?>> entry = values.get(valueIndex);
-			TypeRegistry.RegisteredType<?, ?> type = entry.getValue().type();
+			String name = values.keyAt(valueIndex);
+			Value<?, ?> value = values.valueAt(valueIndex);
+			TypeRegistry.RegisteredType<?, ?> type = value.type();
 			if (type == null)
 				throw new RuntimeException("Can not convert data to string: "
-										   + entry.getValue().getClass() + " isn't a registered type.");
+										   + value.getClass() + " isn't a registered type.");
 			
 			builder.append("\t").append(StringValue.pack(type.name())).append(":");
-			builder.append(StringValue.pack(entry.getKey())).append(": ");
+			builder.append(StringValue.pack(name)).append(": ");
 			
-			String string = entry.getValue().toString();
+			String string = value.toString();
 			for (int index = 0; index < string.length(); index++)
 			{
 				char ch = string.charAt(index);
@@ -242,33 +253,258 @@ public class Data implements Iterable<Value<?, ?>>
 	
 	public byte[] toByteData()
 	{
-		ByteArrayBuilder builder = new ByteArrayBuilder();
-		ArrayList<TypeRegistry.RegisteredType> typeIndex = new ArrayList<>();
+		return toByteData(ByteFormat.LEGACY);
+	}
+	
+	/**
+	 * Encodes this Data object in the given format
+	 * @param format
+	 * @return
+	 * @see ByteFormat
+	 */
+	public byte[] toByteData(ByteFormat format)
+	{
+		ByteArrayBuilder builder = new ByteArrayBuilder(byteSize(format));
+		try
+		{
+			writeTo(builder, format);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		return builder.toPrimitiveArray();
+	}
+	
+	public ByteBuffer toByteBuffer(boolean direct)
+	{
+		return toByteBuffer(direct, ByteFormat.LEGACY);
+	}
+	
+	/**
+	 * Encodes this Data object into a buffer of exactly the right size
+	 * @param direct whether a direct buffer should be allocated
+	 * @param format
+	 * @return a buffer ready to be read from
+	 */
+	public ByteBuffer toByteBuffer(boolean direct, ByteFormat format)
+	{
+		int size = byteSize(format);
+		ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+		try
+		{
+			writeTo(new ByteBufferOutput(buffer), format);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		return buffer.flip();
+	}
+	
+	public int byteSize()
+	{
+		return byteSize(ByteFormat.LEGACY);
+	}
+	
+	/**
+	 * Gives the exact number of bytes that writeTo() will write for this Data object in the given format
+	 * <p>
+	 *     This includes the format's header.
+	 * </p>
+	 * @param format
+	 * @return
+	 */
+	public int byteSize(ByteFormat format)
+	{
+		return format.headerSize() + contentSize(format);
+	}
+	
+	/**
+	 * Gives the exact number of bytes that writeContents() will write for this Data object in the given format
+	 * <p>
+	 *     The size is cached for the most recently requested format, and only recalculated after a value is added,
+	 *     removed or changed.
+	 * </p>
+	 * @param format
+	 * @return
+	 */
+	public int contentSize(ByteFormat format)
+	{
+		if (format.needsDictionary())
+		{
+			ByteFormat documentFormat = documentFormat(format);
+			return documentFormat.dictionary.byteSize(format) + contentSize(documentFormat);
+		}
+		if (byteSize == -1 || !format.equals(byteSizeFormat))
+		{
+			ArrayList<TypeRegistry.RegisteredType<?, ?>> typeIndex = typeIndex(format);
+			int size = format.countSize(size());
+			if (typeIndex != null)
+			{
+				size += format.countSize(typeIndex.size());
+				for (TypeRegistry.RegisteredType<?, ?> type : typeIndex)
+					size += format.typeSize(type);
+			}
+			int offset = 0;
+			for (Value<?, ?> value : this)
+			{
+				int typeNumber = typeNumber(typeIndex, format, value);
+				int length = format.nameSize(value.name) + value.byteSize(format);
+				if (format.offsetTables())
+					size += LazyData.entrySize(format, typeNumber, offset, length);
+				else
+					size += format.countSize(typeNumber);
+				size += length;
+				offset += length;
+			}
+			byteSize = size;
+			byteSizeFormat = format;
+		}
+		return byteSize;
+	}
+	
+	/**
+	 * Drops the cached byte size, along with that of whatever contains this Data object
+	 */
+	void invalidateByteSize()
+	{
+		byteSize = -1;
+		dictionaryFormat = null;
+		if (container != null)
+			container.invalidateByteSize();
+	}
+	
+	/**
+	 * Binds a format with dictionaries to a dictionary of this Data object and everything in it
+	 * <p>
+	 *     The dictionary is kept until something in this Data object changes, so that calculating the size of this
+	 *     Data object and then writing it only builds one dictionary.
+	 * </p>
+	 * @param format
+	 * @return
+	 */
+	private ByteFormat documentFormat(ByteFormat format)
+	{
+		if (dictionaryFormat == null || !dictionaryFormat.unbound().equals(format))
+			dictionaryFormat = format.bind(ByteDictionary.collect(this));
+		return dictionaryFormat;
+	}
+	
+	/**
+	 * Lists the types of the values in this Data object, in the order they're numbered in byte data
+	 * <p>
+	 *     With a document dictionary there is no type index, and null is returned.
+	 * </p>
+	 * @param format
+	 * @return
+	 */
+	private ArrayList<TypeRegistry.RegisteredType<?, ?>> typeIndex(ByteFormat format)
+	{
+		if (format.dictionary != null)
+			return null;
+		ArrayList<TypeRegistry.RegisteredType<?, ?>> typeIndex = new ArrayList<>();
 		for (Value<?, ?> value : this)
 		{
-			TypeRegistry.RegisteredType type = value.type();
+			TypeRegistry.RegisteredType<?, ?> type = value.type();
 			if (type == null)
 				throw new RuntimeException("Can not convert data to bytes: " + value.getClass() + " isn't a registered type.");
 			if (!typeIndex.contains(type))
 				typeIndex.add(type);
 		}
+		return typeIndex;
+	}
+	
+	private static int typeNumber(ArrayList<TypeRegistry.RegisteredType<?, ?>> typeIndex, ByteFormat format,
+								  Value<?, ?> value)
+	{
+		if (typeIndex != null)
+			return typeIndex.indexOf(value.type());
+		int typeNumber = format.dictionary.typeNumber(value.type());
+		if (typeNumber == -1)
+			throw new RuntimeException("Can not convert data to bytes: " + value.type().name()
+									   + " isn't in the document's dictionary.");
+		return typeNumber;
+	}
+	
+	/**
+	 * Writes this Data object's byte data to the given output
+	 * <p>
+	 *     Nested values are written directly into the same output, so an entire document is encoded in a single
+	 *     pass.  To write to a stream wrap it in a DataOutputStream, or use a ByteBufferOutput to write into a
+	 *     ByteBuffer.
+	 * </p>
+	 * @param output
+	 * @throws IOException
+	 * @see #toByteData()
+	 */
+	public void writeTo(DataOutput output) throws IOException
+	{
+		writeTo(output, ByteFormat.LEGACY);
+	}
+	
+	/**
+	 * Writes this Data object's byte data to the given output in the given format
+	 * <p>
+	 *     The format's header is written first, so that byteConsumer() can tell which format to read.
+	 * </p>
+	 * @param output
+	 * @param format
+	 * @throws IOException
+	 */
+	public void writeTo(DataOutput output, ByteFormat format) throws IOException
+	{
+		format.writeHeader(output);
+		writeContents(output, format);
+	}
+	
+	/**
+	 * Writes this Data object's byte data to the given output in the given format, without a header
+	 * <p>
+	 *     Used for Data nested within other Data, which is always in the same format as its container.<br>
+	 *     If the format has dictionaries enabled but no dictionary yet, this is the root of the document, and its
+	 *     dictionary is written first.
+	 * </p>
+	 * @param output
+	 * @param format
+	 * @throws IOException
+	 * @see #byteConsumer(ByteFormat)
+	 */
+	public void writeContents(DataOutput output, ByteFormat format) throws IOException
+	{
+		if (format.needsDictionary())
+		{
+			ByteFormat documentFormat = documentFormat(format);
+			documentFormat.dictionary.writeTo(output, format);
+			format = documentFormat;
+		}
 		
-		builder.add(typeIndex.size());
-		for (TypeRegistry.RegisteredType type : typeIndex)
-			builder.add(type.name());
+		ArrayList<TypeRegistry.RegisteredType<?, ?>> typeIndex = typeIndex(format);
+		if (typeIndex != null)
+		{
+			format.writeCount(output, typeIndex.size());
+			for (TypeRegistry.RegisteredType<?, ?> type : typeIndex)
+				format.writeType(output, type);
+		}
 		
-		builder.add(size());
+		format.writeCount(output, size());
+		if (format.offsetTables())
+		{
+			int offset = 0;
+			for (Value<?, ?> value : this)
+			{
+				int length = format.nameSize(value.name) + value.byteSize(format);
+				LazyData.writeEntry(output, format, value.name, typeNumber(typeIndex, format, value), offset, length);
+				offset += length;
+			}
+		}
 		for (Value<?, ?> value : this)
 		{
-			TypeRegistry.RegisteredType type = value.type();
-			int typeNumber = typeIndex.indexOf(type);
-			
-			builder.add(typeNumber);
-			builder.add(value.name);
-			builder.add(value.asBytes());
+			if (!format.offsetTables())
+				format.writeCount(output, typeNumber(typeIndex, format, value));
+			format.writeName(output, value.name);
+			value.writeTo(output, format);
 		}
-		
-		return builder.toPrimitiveArray();
 	}
 	
 	public static Data fromBytes(Indexer<Byte> source)
@@ -276,71 +512,198 @@ public class Data implements Iterable<Value<?, ?>>
 		return byteConsumer().consume(source).value();
 	}
 	
+	/**
+	 * Reads byte data from a file by memory mapping it
+	 * <p>
+	 *     Values are decoded straight from the mapped region, so the file's contents are never copied onto the
+	 *     heap as a whole.  The file must be smaller than 2GB.
+	 * </p>
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 * @see #writeFile(File)
+	 */
+	public static Consumer.ConsumptionResult<Data, Byte> readFile(File file) throws IOException
+	{
+		return byteConsumer().consume(new IndexableByteBuffer(mapFile(file)).iterator());
+	}
+	
+	static MappedByteBuffer mapFile(File file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE)
+				throw new IOException("File is too large to be mapped: " + size + " bytes.");
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+	}
+	
+	public void writeFile(File file) throws IOException
+	{
+		writeFile(file, ByteFormat.LEGACY);
+	}
+	
+	/**
+	 * Writes this Data object's byte data to a file by memory mapping it
+	 * <p>
+	 *     The file is created if it doesn't exist, and is resized to exactly fit the data.  The data is encoded
+	 *     straight into the mapped region, and flushed to the storage device before returning.
+	 * </p>
+	 * @param file
+	 * @param format
+	 * @throws IOException
+	 * @see #readFile(File)
+	 */
+	public void writeFile(File file, ByteFormat format) throws IOException
+	{
+		int size = byteSize(format);
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE,
+													StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			writeTo(new ByteBufferOutput(buffer), format);
+			buffer.force();
+		}
+	}
+	
+	/**
+	 * Gets a consumer for Data in any format
+	 * <p>
+	 *     If the data begins with a format header it's read in that format, otherwise it's read in the legacy
+	 *     format.
+	 * </p>
+	 * @return
+	 */
 	public static Consumer<Data, Byte> byteConsumer()
 	{
 		return (source) ->
 		{
-			Consumer.ConsumptionResult<Value<?, Integer>, Byte> indexSizeResult =
-					IntegerValue.getByteConsumer().consume(source);
-			if (!indexSizeResult.success())
-				return new Consumer.ConsumptionResult<>(source, RichStringBuilder
-						.start("Could not parse type index length: ")
-						.append(indexSizeResult.description()).build());
-			int indexSize = (int)indexSizeResult.value().get();
-			ArrayList<TypeRegistry.RegisteredType> typeIndex = new ArrayList<>(indexSize);
-			
-			for (int index = 0; index < indexSize; index++)
+			Consumer.ConsumptionResult<ByteFormat, Byte> formatResult = ByteFormat.consumeHeader(source);
+			if (!formatResult.success())
+				return new Consumer.ConsumptionResult<>(source, formatResult.description());
+			return byteConsumer(formatResult.value()).consume(source);
+		};
+	}
+	
+	/**
+	 * Gets a consumer for Data written in the given format without a header
+	 * <p>
+	 *     If the format has dictionaries enabled but no dictionary yet, the document's dictionary is read first.
+	 * </p>
+	 * @param format
+	 * @return
+	 * @see #writeContents(DataOutput, ByteFormat)
+	 */
+	public static Consumer<Data, Byte> byteConsumer(ByteFormat format)
+	{
+		if (format.needsDictionary())
+		{
+			return (source) ->
 			{
-				Consumer.ConsumptionResult<Value<?, String>, Byte> typeNameResult =
-						StringValue.getByteConsumer().consume(source);
-				if (!typeNameResult.success())
+				Consumer.ConsumptionResult<ByteDictionary, Byte> dictionaryResult = ByteDictionary.consume(source, format);
+				if (!dictionaryResult.success())
+					return new Consumer.ConsumptionResult<>(source, dictionaryResult.description());
+				return byteConsumer(format.bind(dictionaryResult.value())).consume(source);
+			};
+		}
+		
+		return (source) ->
+		{
+			List<Consumer<? extends Value<?, ?>, Byte>> typeIndex;
+			List<TypeRegistry.RegisteredType<?, ?>> types;
+			if (format.dictionary != null)
+			{
+				typeIndex = format.dictionary.consumers(format);
+				types = Arrays.asList(format.dictionary.types);
+			}
+			else
+			{
+				Consumer.ConsumptionResult<Integer, Byte> indexSizeResult = format.consumeCount(source);
+				if (!indexSizeResult.success())
 					return new Consumer.ConsumptionResult<>(source, RichStringBuilder
-							.start("Could not parse type index entry #" + index + ": ")
-							.append(typeNameResult.description()).build());
-				String typeName = (String)typeNameResult.value().get();
-				TypeRegistry.RegisteredType type = TypeRegistry.get(typeName);
-				if (type == null)
-					return new Consumer.ConsumptionResult<>(source, "Type index entry #"
-																+ index + " \"" + typeName
-																+ "\" is not a registered value type.");
+							.start("Could not parse type index length: ")
+							.append(indexSizeResult.description()).build());
+				if (indexSizeResult.value() < 0)
+					return new Consumer.ConsumptionResult<>(source, "Invalid type index length.");
+				int indexSize = indexSizeResult.value();
+				typeIndex = new ArrayList<>(indexSize);
+				types = new ArrayList<>(indexSize);
 				
-				typeIndex.add(type);
+				for (int index = 0; index < indexSize; index++)
+				{
+					Consumer.ConsumptionResult<TypeRegistry.RegisteredType<?, ?>, Byte> typeResult =
+							format.consumeType(source);
+					if (!typeResult.success())
+						return new Consumer.ConsumptionResult<>(source, RichStringBuilder
+								.start("Could not parse type index entry #" + index + ": ")
+								.append(typeResult.description()).build());
+					types.add(typeResult.value());
+					typeIndex.add(typeResult.value().byteConsumer(format));
+				}
 			}
+			int indexSize = types.size();
 			
-			Consumer.ConsumptionResult<Value<?, Integer>, Byte> valueCountResult =
-					IntegerValue.getByteConsumer().consume(source);
-			if (!indexSizeResult.success())
+			Consumer.ConsumptionResult<Integer, Byte> valueCountResult = format.consumeCount(source);
+			if (!valueCountResult.success())
 				return new Consumer.ConsumptionResult<>(source, RichStringBuilder
 						.start("Could not parse value count: ")
-						.append(indexSizeResult.description()).build());
-			int valueCount = (int)valueCountResult.value().get();
+						.append(valueCountResult.description()).build());
+			if (valueCountResult.value() < 0)
+				return new Consumer.ConsumptionResult<>(source, "Invalid value count.");
+			int valueCount = valueCountResult.value();
+			
+			//with offset tables the type numbers are all read from the table up front, the records themselves are
+			//always written in the same order as the table
+			int[] tableTypeNumbers = null;
+			if (format.offsetTables())
+			{
+				tableTypeNumbers = new int[valueCount];
+				for (int index = 0; index < valueCount; index++)
+				{
+					Consumer.ConsumptionResult<LazyData.Entry, Byte> entryResult =
+							LazyData.consumeEntry(source, format, indexSize);
+					if (!entryResult.success())
+						return new Consumer.ConsumptionResult<>(source, RichStringBuilder
+								.start("Could not parse offset table entry #" + index + ": ")
+								.append(entryResult.description()).build());
+					tableTypeNumbers[index] = entryResult.value().typeNumber;
+				}
+			}
 			
 			Data data = new Data();
 			for (int index = 0; index < valueCount; index++)
 			{
-				Consumer.ConsumptionResult<Value<?, Integer>, Byte> typeNumberResult =
-						IntegerValue.getByteConsumer().consume(source);
-				if (!indexSizeResult.success())
-					return new Consumer.ConsumptionResult<>(source, RichStringBuilder
-							.start("Could not parse type number for value #" + index + ": ")
-							.append(indexSizeResult.description()).build());
-				TypeRegistry.RegisteredType type = typeIndex.get((int)typeNumberResult.value().get());
+				int typeNumber;
+				if (tableTypeNumbers != null)
+					typeNumber = tableTypeNumbers[index];
+				else
+				{
+					Consumer.ConsumptionResult<Integer, Byte> typeNumberResult = format.consumeCount(source);
+					if (!typeNumberResult.success())
+						return new Consumer.ConsumptionResult<>(source, RichStringBuilder
+								.start("Could not parse type number for value #" + index + ": ")
+								.append(typeNumberResult.description()).build());
+					typeNumber = typeNumberResult.value();
+				}
+				if (typeNumber < 0 || typeNumber >= indexSize)
+					return new Consumer.ConsumptionResult<>(source, "Type number " + typeNumber + " for value #"
+																+ index + " is not in the type index.");
 				
-				Consumer.ConsumptionResult<Value<?, String>, Byte> valueNameResult =
-						StringValue.getByteConsumer().consume(source);
+				Consumer.ConsumptionResult<String, Byte> valueNameResult = format.consumeName(source);
 				if (!valueNameResult.success())
 					return new Consumer.ConsumptionResult<>(source, RichStringBuilder
 							.start("Could not parse value name for value #" + index + ": ")
 							.append(valueNameResult.description()).build());
 				
-				Consumer.ConsumptionResult<Value<?, ?>, Byte> valueResult =
-						type.byteConsumer().consume(source);
+				Consumer.ConsumptionResult<? extends Value<?, ?>, Byte> valueResult =
+						typeIndex.get(typeNumber).consume(source);
 				if (!valueResult.success())
 					return new Consumer.ConsumptionResult<>(source, RichStringBuilder
-							.start("Could not parse value #" + index + " as " + type.name()
+							.start("Could not parse value #" + index + " as " + types.get(typeNumber).name()
 								   + ": ").append(valueResult.description()).build());
 				
-				data.put((String)valueNameResult.value().get(), valueResult.value());
+				data.put(valueNameResult.value(), valueResult.value());
 			}
 			
 			return new Consumer.ConsumptionResult<>(data, source);
@@ -353,6 +716,7 @@ public class Data implements Iterable<Value<?, ?>>
 	}
 	
 	public static final Character[] formattingCharacters = {' ', '\r', '\n', '\t'};
+	public static final CharacterSet formattingCharacterSet = CharacterSet.from(formattingCharacters);
 	
 	public static Consumer<Data, Character> characterConsumer()
 	{
@@ -360,7 +724,7 @@ public class Data implements Iterable<Value<?, ?>>
 		{
 			if (source.atEnd() || source.next() != '{')
 				return new Consumer.ConsumptionResult<>(source, "Must begin with '{'");
-			source.skip(formattingCharacters);
+			source.skipWhile(formattingCharacterSet);
 			
 			boolean expectingNext = false;
 			Data data = new Data();
@@ -415,7 +779,7 @@ public class Data implements Iterable<Value<?, ?>>
 					expectingNext = true;
 				}
 				index++;
-				source.skip(formattingCharacters);
+				source.skipWhile(formattingCharacterSet);
 			}
 			if (source.atEnd())
 			{
@@ -0,0 +1,390 @@
+package jogUtil.data;
+
+import jogUtil.*;
+import jogUtil.data.values.*;
+import jogUtil.indexable.*;
+import jogUtil.richText.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * A read-only view of Data written with offset tables, which decodes values only when they're asked for
+ * <p>
+ *     Opening a view only reads the Data object's type index and offset table.  Each value is decoded the first
+ *     time it's retrieved, and nested Data can be opened as another view without decoding any of it.<br>
+ *     The view reads straight from the underlying ByteIndexable, which must not change while the view is in use.
+ * </p>
+ * @see ByteFormat#offsetTables(boolean)
+ */
+public class LazyData
+{
+	final ByteIndexable bytes;
+	final ByteFormat format;
+	final int start;
+	final int recordsStart;
+	final TypeRegistry.RegisteredType<?, ?>[] types;
+	final Entry[] entries;
+	final HashMap<Integer, Entry> hashes;
+	
+	/**
+	 * A value's entry in an offset table
+	 * <p>
+	 *     The offset is relative to the start of the value records, and the record holds the value's name followed
+	 *     by the value itself.
+	 * </p>
+	 */
+	static final class Entry
+	{
+		final int hash;
+		final int typeNumber;
+		final int offset;
+		final int length;
+		Entry collision = null;
+		String name = null;
+		int valuePosition;
+		Value<?, ?> value = null;
+		LazyData data = null;
+		
+		Entry(int hash, int typeNumber, int offset, int length)
+		{
+			this.hash = hash;
+			this.typeNumber = typeNumber;
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+	
+	LazyData(ByteIndexable bytes, ByteFormat format, int start, int recordsStart,
+			 TypeRegistry.RegisteredType<?, ?>[] types, Entry[] entries)
+	{
+		this.bytes = bytes;
+		this.format = format;
+		this.start = start;
+		this.recordsStart = recordsStart;
+		this.types = types;
+		this.entries = entries;
+		hashes = new HashMap<>(entries.length * 2);
+		for (int index = entries.length - 1; index >= 0; index--)
+			entries[index].collision = hashes.put(entries[index].hash, entries[index]);
+	}
+	
+	public int size()
+	{
+		return entries.length;
+	}
+	
+	public boolean has(String name)
+	{
+		return find(name) != null;
+	}
+	
+	/**
+	 * Provides an array of all the names of the values in this view
+	 * <p>
+	 *     Only the names are decoded, not the values.
+	 * </p>
+	 * @return
+	 */
+	public String[] names()
+	{
+		String[] names = new String[entries.length];
+		for (int index = 0; index < entries.length; index++)
+			names[index] = name(entries[index]);
+		return names;
+	}
+	
+	/**
+	 * Gets the type of a value without decoding it
+	 * <p>
+	 *     If there is no value with the given name, null is returned.
+	 * </p>
+	 * @param name
+	 * @return
+	 */
+	public TypeRegistry.RegisteredType<?, ?> type(String name)
+	{
+		Entry entry = find(name);
+		if (entry == null)
+			return null;
+		return types[entry.typeNumber];
+	}
+	
+	/**
+	 * Retrieves a value, decoding it if this is the first time it's been retrieved
+	 * <p>
+	 *     If there is no value with the given name, null is returned.<br>
+	 *     The same Value object is returned each time, so changes made to it are visible to later calls, but are
+	 *     never written back to the underlying bytes.
+	 * </p>
+	 * @param name
+	 * @return
+	 */
+	public Value<?, ?> get(String name)
+	{
+		Entry entry = find(name);
+		if (entry == null)
+			return null;
+		if (entry.value == null)
+		{
+			TypeRegistry.RegisteredType<?, ?> type = types[entry.typeNumber];
+			Consumer.ConsumptionResult<? extends Value<?, ?>, Byte> result =
+					type.byteConsumer(format).consume(new ByteIndexer(bytes, entry.valuePosition));
+			if (!result.success())
+				throw new RuntimeException("Could not read value \"" + name + "\" as " + type.name() + ": "
+										   + result.description().encode(EncodingType.PLAIN));
+			entry.value = result.value();
+		}
+		return entry.value;
+	}
+	
+	/**
+	 * Retrieves a specific type of value
+	 * <p>
+	 *     If there is no value with the given name, or if it is an incompatible type, then the provided default
+	 *     value will be returned.
+	 * </p>
+	 * @param name
+	 * @param defaultValue
+	 * @return
+	 * @param <Type>
+	 */
+	@SuppressWarnings("unchecked")
+	public <Type> Type getValue(String name, Value<Type, ?> defaultValue)
+	{
+		Entry entry = find(name);
+		if (entry == null || !types[entry.typeNumber].typeClass().equals(defaultValue.getClass()))
+			return defaultValue.get();
+		//the stored value has the same class as the default value, so it holds the same type
+		return (Type)get(name).get();
+	}
+	
+	/**
+	 * Opens a view of nested Data without decoding it
+	 * <p>
+	 *     If there is no value with the given name, or it isn't Data, null is returned.
+	 * </p>
+	 * @param name
+	 * @return
+	 */
+	public LazyData getData(String name)
+	{
+		Entry entry = find(name);
+		if (entry == null || !types[entry.typeNumber].typeClass().equals(DataValue.class))
+			return null;
+		if (entry.data == null)
+		{
+			Consumer.ConsumptionResult<LazyData, Byte> result =
+					byteConsumer(format).consume(new ByteIndexer(bytes, entry.valuePosition));
+			if (!result.success())
+				throw new RuntimeException("Could not read value \"" + name + "\" as Data: "
+										   + result.description().encode(EncodingType.PLAIN));
+			entry.data = result.value();
+		}
+		return entry.data;
+	}
+	
+	/**
+	 * Decodes everything in this view into a new Data object
+	 * @return
+	 */
+	public Data toData()
+	{
+		Consumer.ConsumptionResult<Data, Byte> result = Data.byteConsumer(format).consume(new ByteIndexer(bytes, start));
+		if (!result.success())
+			throw new RuntimeException("Could not read data: " + result.description().encode(EncodingType.PLAIN));
+		return result.value();
+	}
+	
+	private Entry find(String name)
+	{
+		Entry entry = hashes.get(name.hashCode());
+		while (entry != null && !name(entry).equals(name))
+			entry = entry.collision;
+		return entry;
+	}
+	
+	private String name(Entry entry)
+	{
+		if (entry.name == null)
+		{
+			ByteIndexer source = new ByteIndexer(bytes, recordsStart + entry.offset);
+			Consumer.ConsumptionResult<String, Byte> result = format.consumeName(source);
+			if (!result.success())
+				throw new RuntimeException("Could not read value name: " + result.description().encode(EncodingType.PLAIN));
+			entry.name = result.value();
+			entry.valuePosition = source.position();
+		}
+		return entry.name;
+	}
+	
+	/**
+	 * Opens a view of Data written in a format with offset tables
+	 * <p>
+	 *     The format header is required.  The source must be an unfiltered ByteIndexer, and is advanced past the
+	 *     entire Data object.
+	 * </p>
+	 * @param bytes
+	 * @return
+	 */
+	public static Consumer.ConsumptionResult<LazyData, Byte> open(ByteIndexer bytes)
+	{
+		return byteConsumer().consume(bytes);
+	}
+	
+	/**
+	 * Opens a view of a file by memory mapping it
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 * @see Data#writeFile(File, ByteFormat)
+	 */
+	public static Consumer.ConsumptionResult<LazyData, Byte> readFile(File file) throws IOException
+	{
+		return open(new IndexableByteBuffer(Data.mapFile(file)).iterator());
+	}
+	
+	public static Consumer<LazyData, Byte> byteConsumer()
+	{
+		return (source) ->
+		{
+			Consumer.ConsumptionResult<ByteFormat, Byte> formatResult = ByteFormat.consumeHeader(source);
+			if (!formatResult.success())
+				return new Consumer.ConsumptionResult<>(source, formatResult.description());
+			if (!formatResult.value().offsetTables())
+				return new Consumer.ConsumptionResult<>(source, "Data was not written with offset tables.");
+			return byteConsumer(formatResult.value()).consume(source);
+		};
+	}
+	
+	/**
+	 * Gets a consumer that opens views of Data written in the given format without a header
+	 * <p>
+	 *     If the format has dictionaries enabled but no dictionary yet, the document's dictionary is read first.
+	 * </p>
+	 * @param format a format with offset tables
+	 * @return
+	 */
+	public static Consumer<LazyData, Byte> byteConsumer(ByteFormat format)
+	{
+		if (format.needsDictionary())
+		{
+			return (source) ->
+			{
+				Consumer.ConsumptionResult<ByteDictionary, Byte> dictionaryResult = ByteDictionary.consume(source, format);
+				if (!dictionaryResult.success())
+					return new Consumer.ConsumptionResult<>(source, dictionaryResult.description());
+				return byteConsumer(format.bind(dictionaryResult.value())).consume(source);
+			};
+		}
+		
+		return (source) ->
+		{
+			if (!(source instanceof ByteIndexer byteSource) || byteSource.filtered())
+				return new Consumer.ConsumptionResult<>(source, "Lazy data can only be read from an unfiltered ByteIndexer.");
+			if (!format.offsetTables())
+				return new Consumer.ConsumptionResult<>(source, "Format " + format + " does not have offset tables.");
+			int start = source.position();
+			
+			TypeRegistry.RegisteredType<?, ?>[] types;
+			if (format.dictionary != null)
+				types = format.dictionary.types;
+			else
+			{
+				Consumer.ConsumptionResult<Integer, Byte> indexSizeResult = format.consumeCount(source);
+				if (!indexSizeResult.success())
+					return new Consumer.ConsumptionResult<>(source, RichStringBuilder
+							.start("Could not parse type index length: ")
+							.append(indexSizeResult.description()).build());
+				if (indexSizeResult.value() < 0)
+					return new Consumer.ConsumptionResult<>(source, "Invalid type index length.");
+				types = new TypeRegistry.RegisteredType<?, ?>[indexSizeResult.value()];
+				for (int index = 0; index < types.length; index++)
+				{
+					Consumer.ConsumptionResult<TypeRegistry.RegisteredType<?, ?>, Byte> typeResult =
+							format.consumeType(source);
+					if (!typeResult.success())
+						return new Consumer.ConsumptionResult<>(source, RichStringBuilder
+								.start("Could not parse type index entry #" + index + ": ")
+								.append(typeResult.description()).build());
+					types[index] = typeResult.value();
+				}
+			}
+			
+			Consumer.ConsumptionResult<Integer, Byte> valueCountResult = format.consumeCount(source);
+			if (!valueCountResult.success())
+				return new Consumer.ConsumptionResult<>(source, RichStringBuilder
+						.start("Could not parse value count: ")
+						.append(valueCountResult.description()).build());
+			if (valueCountResult.value() < 0)
+				return new Consumer.ConsumptionResult<>(source, "Invalid value count.");
+			Entry[] entries = new Entry[valueCountResult.value()];
+			int recordsLength = 0;
+			for (int index = 0; index < entries.length; index++)
+			{
+				Consumer.ConsumptionResult<Entry, Byte> entryResult = consumeEntry(source, format, types.length);
+				if (!entryResult.success())
+					return new Consumer.ConsumptionResult<>(source, RichStringBuilder
+							.start("Could not parse offset table entry #" + index + ": ")
+							.append(entryResult.description()).build());
+				entries[index] = entryResult.value();
+				recordsLength = Math.max(recordsLength, entries[index].offset + entries[index].length);
+			}
+			
+			LazyData data = new LazyData(byteSource.indexable(), format, start, source.position(), types, entries);
+			if (!byteSource.hasBytes(recordsLength))
+				return new Consumer.ConsumptionResult<>(source, "Not enough available data.");
+			source.skip(recordsLength);
+			return new Consumer.ConsumptionResult<>(data, source);
+		};
+	}
+	
+	/**
+	 * Reads one entry of an offset table
+	 * @param source
+	 * @param format
+	 * @param typeCount the size of the type index the entry's type number refers to
+	 * @return
+	 */
+	static Consumer.ConsumptionResult<Entry, Byte> consumeEntry(Indexer<Byte> source, ByteFormat format, int typeCount)
+	{
+		Consumer.ConsumptionResult<Integer, Byte> hashResult = IntegerValue.simpleByteConsume(source);
+		if (!hashResult.success())
+			return new Consumer.ConsumptionResult<>(source, hashResult.description());
+		int[] numbers = new int[3];
+		for (int index = 0; index < numbers.length; index++)
+		{
+			Consumer.ConsumptionResult<Integer, Byte> numberResult = format.consumeCount(source);
+			if (!numberResult.success())
+				return new Consumer.ConsumptionResult<>(source, numberResult.description());
+			numbers[index] = numberResult.value();
+		}
+		if (numbers[0] < 0 || numbers[0] >= typeCount)
+			return new Consumer.ConsumptionResult<>(source, "Type number " + numbers[0] + " is not in the type index.");
+		if (numbers[1] < 0 || numbers[2] < 0 || numbers[1] + numbers[2] < 0)
+			return new Consumer.ConsumptionResult<>(source, "Invalid record offset or length.");
+		return new Consumer.ConsumptionResult<>(new Entry(hashResult.value(), numbers[0], numbers[1], numbers[2]), source);
+	}
+	
+	/**
+	 * Gives the number of bytes writeEntry() writes
+	 * @param format
+	 * @param typeNumber
+	 * @param offset
+	 * @param length
+	 * @return
+	 */
+	static int entrySize(ByteFormat format, int typeNumber, int offset, int length)
+	{
+		return 4 + format.countSize(typeNumber) + format.countSize(offset) + format.countSize(length);
+	}
+	
+	static void writeEntry(DataOutput output, ByteFormat format, String name, int typeNumber, int offset, int length)
+			throws IOException
+	{
+		output.writeInt(name.hashCode());
+		format.writeCount(output, typeNumber);
+		format.writeCount(output, offset);
+		format.writeCount(output, length);
+	}
+}
\ No newline at end of file
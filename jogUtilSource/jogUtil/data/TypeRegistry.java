@@ -15,6 +15,16 @@ public class TypeRegistry
 {
 	private static final HashMap<String, RegisteredType<?, ?>> nameMap = new HashMap<>();
 	private static final HashMap<Class<?>, RegisteredType<?, ?>> classMap = new HashMap<>();
+	/**
+	 * Names of the default types, in the order of their compact type ids
+	 * <p>
+	 *     Compact byte data refers to these types by their position in this array instead of by name, so types
+	 *     must only ever be added to the end of it.
+	 * </p>
+	 */
+	private static final String[] compactTypeNames = {
+		"Byte", "Boolean", "Short", "Character", "Integer", "Float", "Long", "Double", "UUID", "String", "List", "Data"
+	};
 	private static final Result[] defaultValueStatus = RegistrationQueue.start()
 			.add("Byte", ByteValue.class)
 			.add("Boolean", BooleanValue.class)
@@ -57,6 +67,40 @@ public class TypeRegistry
 		return nameMap.get(name);
 	}
 	
+	/**
+	 * Gets the id that compact byte data uses to refer to a type
+	 * <p>
+	 *     Only the default types have compact ids, 0 is returned for any other type.
+	 * </p>
+	 * @param type
+	 * @return
+	 * @see ByteFormat
+	 */
+	public static int compactId(RegisteredType<?, ?> type)
+	{
+		for (int index = 0; index < compactTypeNames.length; index++)
+		{
+			if (compactTypeNames[index].equals(type.name))
+				return index + 1;
+		}
+		return 0;
+	}
+	
+	/**
+	 * Gets the type that a compact id refers to
+	 * <p>
+	 *     If the id doesn't refer to a registered type, null is returned.
+	 * </p>
+	 * @param id
+	 * @return
+	 */
+	public static RegisteredType<?, ?> fromCompactId(int id)
+	{
+		if (id < 1 || id > compactTypeNames.length)
+			return null;
+		return nameMap.get(compactTypeNames[id - 1]);
+	}
+	
 	/**
 	 * Returns an array of the registration results from the default value types
 	 * @return
@@ -441,6 +485,16 @@ public class TypeRegistry
 			return (Consumer<Value<?, ConsumptionResult>, Byte>)byteConsumer.invoke(new Object[] {data});
 		}
 		
+		/**
+		 * Gets a byte consumer that reads values written in the given format
+		 * @param format
+		 * @return
+		 */
+		public Consumer<Value<?, ConsumptionResult>, Byte> byteConsumer(ByteFormat format)
+		{
+			return byteConsumer(format.consumerData());
+		}
+		
 		public Consumer<Value<?, ConsumptionResult>, Character> characterConsumer()
 		{
 			return characterConsumer(new Object[0]);
@@ -655,6 +709,32 @@ public class TypeRegistry
 		if (byteData == null)
 			return new Result("asBytes can not return null.");
 		
+		//ensure that writing to an output produces the same data as asBytes
+		ByteArrayBuilder writtenData = new ByteArrayBuilder();
+		try
+		{
+			testValue.writeTo(writtenData);
+		}
+		catch (Exception e)
+		{
+			return new Result("Exception occurred while writing byte data: " + Result.describeThrowableFull(e));
+		}
+		if (!Arrays.equals(byteData, writtenData.toPrimitiveArray()))
+			return new Result("writeTo did not produce the same data as asBytes.");
+		
+		//ensure that the reported byte size is accurate
+		int byteSize;
+		try
+		{
+			byteSize = testValue.byteSize();
+		}
+		catch (Exception e)
+		{
+			return new Result("Exception occurred while calculating byte size: " + Result.describeThrowableFull(e));
+		}
+		if (byteSize != byteData.length)
+			return new Result("byteSize reported " + byteSize + " bytes, but asBytes produced " + byteData.length + ".");
+		
 		//ensure that interpreting byte data produces the original value while consuming the correct
 		//amount of data
 		//we add an extra byte to the end to make sure the interpreter doesn't consume too much data
@@ -686,7 +766,58 @@ public class TypeRegistry
 		if (!testValue.equals(second))
 			return new Result("Byte conversion did not produce an equal value.");
 		
+		//ensure that the compact format reports its size accurately, and reads back the same value
+		for (ByteFormat format : new ByteFormat[] {ByteFormat.COMPACT, ByteFormat.compact(false),
+										   ByteFormat.COMPACT.offsetTables(true), ByteFormat.COMPACT.packedLists(true),
+										   ByteFormat.COMPACT.dictionaries(true)})
+		{
+			Result formatResult = checkFormat(testValue, format);
+			if (!formatResult.success())
+				return new Result(RichStringBuilder.start("Format " + format + ": ").append(formatResult.description()).build());
+		}
+		
 		//all checks have passed
 		return new Result();
 	}
+	
+	private static <ValueType, ConsumptionType> Result checkFormat(Value<ValueType, ConsumptionType> testValue, ByteFormat format)
+	{
+		ByteArrayBuilder builder = new ByteArrayBuilder();
+		int byteSize;
+		try
+		{
+			testValue.writeTo(builder, format);
+			byteSize = testValue.byteSize(format);
+		}
+		catch (Exception e)
+		{
+			return new Result("Exception occurred while writing byte data: " + Result.describeThrowableFull(e));
+		}
+		if (byteSize != builder.size())
+			return new Result("byteSize reported " + byteSize + " bytes, but writeTo wrote " + builder.size() + ".");
+		
+		builder.add((byte)0);
+		Indexer<Byte> byteSource = ByteArrayBuilder.indexer(builder.toPrimitiveArray());
+		Consumer.ConsumptionResult<? extends Value<?, ?>, Byte> byteResult;
+		try
+		{
+			byteResult = testValue.type().byteConsumer(format).consume(byteSource);
+		}
+		catch (Exception e)
+		{
+			return new Result("Exception occurred while parsing byte data: " + Result.describeThrowableFull(e));
+		}
+		if (byteResult == null)
+			return new Result("Byte consumer can not return a null result.");
+		if (!byteResult.success())
+			return new Result(RichStringBuilder.start("Byte consumption failed on data that should have been valid: ").append(byteResult.description()).build());
+		if (byteSource.atEnd())
+			return new Result("Byte consumer has consumed too much data.");
+		byteSource.next();
+		if (!byteSource.atEnd())
+			return new Result("Byte consumer has not consumed enough data.");
+		if (!testValue.equals(byteResult.value()))
+			return new Result("Byte conversion did not produce an equal value.");
+		return new Result();
+	}
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import jogUtil.commander.*;
 import jogUtil.commander.argument.*;
 import jogUtil.indexable.*;
 
+import java.io.*;
 import java.util.*;
 
 public abstract class Value<ValueType, ConsumptionType> implements Argument<ValueType>
@@ -31,6 +32,100 @@ public abstract class Value<ValueType, ConsumptionType> implements Argument<Valu
 	 */
 	public abstract byte[] asBytes();
 	
+	/**
+	 * Writes this value's byte data to the given output
+	 * <p>
+	 *     Must write exactly the same bytes that asBytes() returns.  By default this just writes the result of
+	 *     asBytes(), but implementations should override it to write straight into the output so that nested
+	 *     values don't each need to build their own array.
+	 * </p>
+	 * @param output
+	 * @throws IOException
+	 */
+	public void writeTo(DataOutput output) throws IOException
+	{
+		output.write(asBytes());
+	}
+	
+	/**
+	 * Writes this value's byte data to the given output in the given format
+	 * <p>
+	 *     Must write the same bytes that the type's byte consumer reads when given the same format.  By default the
+	 *     format is ignored and writeTo(output) is used, which is only correct for types whose byte consumer also
+	 *     ignores the format.
+	 * </p>
+	 * @param output
+	 * @param format
+	 * @throws IOException
+	 * @see ByteFormat
+	 */
+	public void writeTo(DataOutput output, ByteFormat format) throws IOException
+	{
+		writeTo(output);
+	}
+	
+	/**
+	 * Gives the exact number of bytes that writeTo() will write for this value
+	 * <p>
+	 *     By default this converts the value with asBytes() and measures the result, implementations should
+	 *     override it with a cheaper calculation.<br>
+	 *     Values that contain other values should cache their size, and drop that cache whenever
+	 *     invalidateByteSize() is called.
+	 * </p>
+	 * @return
+	 */
+	public int byteSize()
+	{
+		return asBytes().length;
+	}
+	
+	/**
+	 * Gives the exact number of bytes that writeTo() will write for this value in the given format
+	 * @param format
+	 * @return
+	 */
+	public int byteSize(ByteFormat format)
+	{
+		return byteSize();
+	}
+	
+	/**
+	 * Lets whatever contains this value know that its byte size may have changed
+	 * <p>
+	 *     Called whenever the value is set.  Values that cache their byte size should override this to drop
+	 *     their cache, and call it whenever their contents change in some other way.
+	 * </p>
+	 */
+	protected void invalidateByteSize()
+	{
+		if (parent != null)
+			parent.invalidateByteSize();
+		if (container != null)
+			container.invalidateByteSize();
+	}
+	
+	/**
+	 * Records that a value is held by another value, so that changes to its byte size are passed on
+	 * @param value
+	 * @param container
+	 * @see #invalidateByteSize()
+	 */
+	protected static void contain(Value<?, ?> value, Value<?, ?> container)
+	{
+		value.container = container;
+	}
+	
+	/**
+	 * Records that a Data object is held by a value, so that changes to its byte size are passed on
+	 * @param data
+	 * @param container
+	 * @see #invalidateByteSize()
+	 */
+	protected static void contain(Data data, Value<?, ?> container)
+	{
+		data.container = container;
+	}
+	
 	/**
 	 * Creates a new value containing the same data
 	 * <p>
@@ -55,6 +150,7 @@ public abstract class Value<ValueType, ConsumptionType> implements Argument<Valu
 	ValueType value = emptyValue();
 	String name = null;
 	Data parent = null;
+	Value<?, ?> container = null;
 	boolean persistent = false;
 	final ArrayList<Value.ValueChangeListener<ValueType>> changeListeners = new ArrayList<>();
 	
@@ -107,6 +203,7 @@ public abstract class Value<ValueType, ConsumptionType> implements Argument<Valu
 		ValueType old = this.value;
 		this.value = value;
 		persistent = true;
+		invalidateByteSize();
 		for (ValueChangeListener<ValueType> listener : changeListeners)
 		{
 			try
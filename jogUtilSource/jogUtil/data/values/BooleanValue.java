@@ -5,6 +5,7 @@ import jogUtil.commander.*;
 import jogUtil.data.*;
 import jogUtil.indexable.*;
 
+import java.io.*;
 import java.util.*;
 
 public class BooleanValue extends Value<Boolean, Boolean>
@@ -60,6 +61,18 @@ public class BooleanValue extends Value<Boolean, Boolean>
 		return toByteData(get());
 	}
 	
+	@Override
+	public void writeTo(DataOutput output) throws IOException
+	{
+		output.writeBoolean(get());
+	}
+	
+	@Override
+	public int byteSize()
+	{
+		return 1;
+	}
+	
 	@Override
 	protected Value<Boolean, Boolean> makeCopy()
 	{
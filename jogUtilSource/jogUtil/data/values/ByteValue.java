@@ -5,6 +5,7 @@ import jogUtil.commander.*;
 import jogUtil.data.*;
 import jogUtil.indexable.*;
 
+import java.io.*;
 import java.util.*;
 
 public class ByteValue extends Value<Byte, Byte>
@@ -42,6 +43,18 @@ public class ByteValue extends Value<Byte, Byte>
 		return new byte[] {get()};
 	}
 	
+	@Override
+	public void writeTo(DataOutput output) throws IOException
+	{
+		output.writeByte(get());
+	}
+	
+	@Override
+	public int byteSize()
+	{
+		return 1;
+	}
+	
 	@Override
 	protected Value<Byte, Byte> makeCopy()
 	{
@@ -5,6 +5,7 @@ import jogUtil.commander.*;
 import jogUtil.data.*;
 import jogUtil.indexable.*;
 
+import java.io.*;
 import java.nio.*;
 import java.nio.charset.*;
 import java.util.*;
@@ -49,6 +50,18 @@ public class CharacterValue extends Value<Character, Character>
 		return toByteData(get());
 	}
 	
+	@Override
+	public void writeTo(DataOutput output) throws IOException
+	{
+		output.writeInt(toCodePoint(get()));
+	}
+	
+	@Override
+	public int byteSize()
+	{
+		return 4;
+	}
+	
 	@Override
 	protected Value<Character, Character> makeCopy()
 	{
@@ -84,6 +97,9 @@ public class CharacterValue extends Value<Character, Character>
 	{
 		return (source) ->
 		{
+			if (source instanceof ByteIndexer byteSource && byteSource.hasBytes(4))
+				return new Consumer.ConsumptionResult<>(new CharacterValue(fromCodePoint(byteSource.readInt())), source);
+			
 			List<Byte> bytes = source.allNext(4);
 			if (bytes == null)
 				return new Consumer.ConsumptionResult<>(source, "Not enough available data.");
@@ -122,7 +138,40 @@ public class CharacterValue extends Value<Character, Character>
 	 */
 	public static byte[] toByteData(Character value)
 	{
-		return Charset.forName("UTF-32").encode("" + value).array();
+		return IntegerValue.toByteData(toCodePoint(value));
+	}
+	
+	/**
+	 * Gives the code point a character is encoded as
+	 * <p>
+	 *     A lone surrogate can't be encoded on its own, so it is replaced with U+FFFD the same way a UTF-32
+	 *     encoder would.
+	 * </p>
+	 * @param value
+	 * @return
+	 */
+	static int toCodePoint(char value)
+	{
+		return Character.isSurrogate(value) ? 0xFFFD : value;
+	}
+	
+	/**
+	 * Gives the character a decoded code point is read as
+	 * <p>
+	 *     Matches UTF-32 decoding: supplementary code points give their high surrogate, and invalid code points
+	 *     are replaced with U+FFFD.
+	 * </p>
+	 * @param codePoint
+	 * @return
+	 */
+	static char fromCodePoint(int codePoint)
+	{
+		if (Character.isBmpCodePoint(codePoint))
+			return (char)codePoint;
+		else if (Character.isValidCodePoint(codePoint))
+			return Character.highSurrogate(codePoint);
+		else
+			return 0xFFFD;
 	}
 	
 	/**
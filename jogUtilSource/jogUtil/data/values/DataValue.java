@@ -5,6 +5,7 @@ import jogUtil.commander.*;
 import jogUtil.data.*;
 import jogUtil.indexable.*;
 
+import java.io.*;
 import java.util.*;
 
 public class DataValue extends Value<Data, Data>
@@ -54,6 +55,31 @@ public class DataValue extends Value<Data, Data>
 		return get().toByteData();
 	}
 	
+	@Override
+	public void writeTo(DataOutput output) throws IOException
+	{
+		get().writeTo(output);
+	}
+	
+	@Override
+	public void writeTo(DataOutput output, ByteFormat format) throws IOException
+	{
+		get().writeContents(output, format);
+	}
+	
+	@Override
+	public int byteSize()
+	{
+		return byteSize(ByteFormat.LEGACY);
+	}
+	
+	@Override
+	public int byteSize(ByteFormat format)
+	{
+		contain(get(), this);
+		return get().contentSize(format);
+	}
+	
 	@Override
 	protected Value<Data, Data> makeCopy()
 	{
@@ -72,12 +98,30 @@ public class DataValue extends Value<Data, Data>
 	
 	}
 	
-	@TypeRegistry.ByteConsumer
 	public static Consumer<Value<?, Data>, Byte> getByteConsumer()
+	{
+		return getByteConsumer(ByteFormat.LEGACY);
+	}
+	
+	@TypeRegistry.ByteConsumer
+	public static Consumer<Value<?, Data>, Byte> getByteConsumer(Object[] data)
+	{
+		return getByteConsumer(ByteFormat.of(data));
+	}
+	
+	/**
+	 * Gets a consumer for nested Data written in the given format
+	 * <p>
+	 *     Nested Data never has its own format header, it is always written in the format of the Data containing it.
+	 * </p>
+	 * @param format
+	 * @return
+	 */
+	public static Consumer<Value<?, Data>, Byte> getByteConsumer(ByteFormat format)
 	{
 		return (source) ->
 		{
-			Consumer.ConsumptionResult<Data, Byte> result = Data.byteConsumer().consume(source);
+			Consumer.ConsumptionResult<Data, Byte> result = Data.byteConsumer(format).consume(source);
 			if (result.success())
 				return new Consumer.ConsumptionResult<>(new DataValue(result.value()), source, result.description());
 			else
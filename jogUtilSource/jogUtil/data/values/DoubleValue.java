@@ -5,6 +5,7 @@ import jogUtil.commander.*;
 import jogUtil.data.*;
 import jogUtil.indexable.*;
 
+import java.io.*;
 import java.nio.*;
 import java.util.*;
 
@@ -55,6 +56,18 @@ public class DoubleValue extends Value<Double, Double>
 		return toByteData(get());
 	}
 	
+	@Override
+	public void writeTo(DataOutput output) throws IOException
+	{
+		output.writeLong(Double.doubleToRawLongBits(get()));
+	}
+	
+	@Override
+	public int byteSize()
+	{
+		return 8;
+	}
+	
 	@Override
 	protected Value<Double, Double> makeCopy()
 	{
@@ -72,6 +85,9 @@ public class DoubleValue extends Value<Double, Double>
 	{
 		return (source) ->
 		{
+			if (source instanceof ByteIndexer byteSource && byteSource.hasBytes(8))
+				return new Consumer.ConsumptionResult<>(new DoubleValue(byteSource.readDouble()), source);
+			
 			ArrayList<Byte> bytes = source.allNext(8);
 			if (bytes == null)
 				return new Consumer.ConsumptionResult<>(source, "Not enough available data.");
@@ -5,6 +5,7 @@ import jogUtil.commander.*;
 import jogUtil.data.*;
 import jogUtil.indexable.*;
 
+import java.io.*;
 import java.nio.*;
 import java.util.*;
 
@@ -55,6 +56,18 @@ public class FloatValue extends Value<Float, Float>
 		return toByteData(get());
 	}
 	
+	@Override
+	public void writeTo(DataOutput output) throws IOException
+	{
+		output.writeInt(Float.floatToRawIntBits(get()));
+	}
+	
+	@Override
+	public int byteSize()
+	{
+		return 4;
+	}
+	
 	@Override
 	protected Value<Float, Float> makeCopy()
 	{
@@ -72,6 +85,9 @@ public class FloatValue extends Value<Float, Float>
 	{
 		return (source) ->
 		{
+			if (source instanceof ByteIndexer byteSource && byteSource.hasBytes(4))
+				return new Consumer.ConsumptionResult<>(new FloatValue(byteSource.readFloat()), source);
+			
 			ArrayList<Byte> bytes = source.allNext(4);
 			if (bytes == null)
 				return new Consumer.ConsumptionResult<>(source, "Not enough available data.");
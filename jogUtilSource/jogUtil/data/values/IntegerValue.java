@@ -5,6 +5,7 @@ import jogUtil.commander.*;
 import jogUtil.data.*;
 import jogUtil.indexable.*;
 
+import java.io.*;
 import java.nio.*;
 import java.util.*;
 
@@ -43,6 +44,36 @@ public class IntegerValue extends Value<Integer, Integer>
 		return toByteData(get());
 	}
 	
+	@Override
+	public void writeTo(DataOutput output) throws IOException
+	{
+		output.writeInt(get());
+	}
+	
+	@Override
+	public void writeTo(DataOutput output, ByteFormat format) throws IOException
+	{
+		if (format.zigZag())
+			ByteFormat.writeVarLong(output, ByteFormat.zigZag(get()));
+		else
+			writeTo(output);
+	}
+	
+	@Override
+	public int byteSize()
+	{
+		return 4;
+	}
+	
+	@Override
+	public int byteSize(ByteFormat format)
+	{
+		if (format.zigZag())
+			return ByteFormat.varLongSize(ByteFormat.zigZag(get()));
+		else
+			return byteSize();
+	}
+	
 	@Override
 	protected Value<Integer, Integer> makeCopy()
 	{
@@ -73,11 +104,35 @@ public class IntegerValue extends Value<Integer, Integer>
 	
 	}
 	
-	@TypeRegistry.ByteConsumer
 	public static Consumer<Value<?, Integer>, Byte> getByteConsumer()
+	{
+		return getByteConsumer(ByteFormat.LEGACY);
+	}
+	
+	@TypeRegistry.ByteConsumer
+	public static Consumer<Value<?, Integer>, Byte> getByteConsumer(Object[] data)
+	{
+		return getByteConsumer(ByteFormat.of(data));
+	}
+	
+	public static Consumer<Value<?, Integer>, Byte> getByteConsumer(ByteFormat format)
 	{
 		return (source) ->
 		{
+			if (format.zigZag())
+			{
+				Consumer.ConsumptionResult<Long, Byte> result = ByteFormat.consumeVarLong(source);
+				if (!result.success())
+					return new Consumer.ConsumptionResult<>(source, result.description());
+				long value = ByteFormat.unZigZag(result.value());
+				if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+					return new Consumer.ConsumptionResult<>(source, "Number is out of range.");
+				return new Consumer.ConsumptionResult<>(new IntegerValue((int)value), source);
+			}
+			
+			if (source instanceof ByteIndexer byteSource && byteSource.hasBytes(4))
+				return new Consumer.ConsumptionResult<>(new IntegerValue(byteSource.readInt()), source);
+			
 			ArrayList<Byte> bytes = source.allNext(4);
 			if (bytes == null)
 				return new Consumer.ConsumptionResult<>(source, "Not enough available data.");
@@ -6,12 +6,16 @@ import jogUtil.data.*;
 import jogUtil.indexable.*;
 import jogUtil.richText.*;
 
+import java.io.*;
 import java.util.*;
 
 public class ListValue<Type extends Value<?, ?>> extends Value<List<Type>, List<Value<?, ?>>> implements List<Type>
 {
 	private final TypeRegistry.RegisteredType<?, ?> type;
 	final ArrayList<ListChangeListener<Type>> listeners = new ArrayList<>();
+	int byteSize = -1;
+	ByteFormat byteSizeFormat = null;
+	boolean packed = false;
 	
 	private static void validateType(TypeRegistry.RegisteredType<?, ?> type)
 	{
@@ -39,11 +43,133 @@ public class ListValue<Type extends Value<?, ?>> extends Value<List<Type>, List<
 		set(value);
 	}
 	
+	/**
+	 * Gives the type of the values in this list
+	 * @return
+	 */
+	public TypeRegistry.RegisteredType<?, ?> elementType()
+	{
+		return type;
+	}
+	
 	public static <Type extends Value<?, ?>> ListValue<Type> create(TypeRegistry.RegisteredType<?, ?> type, List<Type> value)
 	{
 		return new ListValue<>(type, value);
 	}
 	
+	/**
+	 * Creates a list that stores its values as packed primitives
+	 * @param type a type that PackedList can pack
+	 * @param value
+	 * @return
+	 * @param <Type>
+	 * @see #pack()
+	 */
+	public static <Type extends Value<?, ?>> ListValue<Type> createPacked(TypeRegistry.RegisteredType<?, ?> type, List<Type> value)
+	{
+		ListValue<Type> list = new ListValue<>(type);
+		list.pack();
+		list.set(value);
+		return list;
+	}
+	
+	public static ListValue<ByteValue> of(byte[] values)
+	{
+		return adopt(new PackedList<>(values));
+	}
+	
+	public static ListValue<BooleanValue> of(boolean[] values)
+	{
+		return adopt(new PackedList<>(values));
+	}
+	
+	public static ListValue<ShortValue> of(short[] values)
+	{
+		return adopt(new PackedList<>(values));
+	}
+	
+	public static ListValue<IntegerValue> of(int[] values)
+	{
+		return adopt(new PackedList<>(values));
+	}
+	
+	public static ListValue<FloatValue> of(float[] values)
+	{
+		return adopt(new PackedList<>(values));
+	}
+	
+	public static ListValue<LongValue> of(long[] values)
+	{
+		return adopt(new PackedList<>(values));
+	}
+	
+	public static ListValue<DoubleValue> of(double[] values)
+	{
+		return adopt(new PackedList<>(values));
+	}
+	
+	/**
+	 * Wraps a packed list in a new ListValue without copying it
+	 * @param packedList
+	 * @return
+	 * @param <Type>
+	 */
+	static <Type extends Value<?, ?>> ListValue<Type> adopt(PackedList<Type> packedList)
+	{
+		ListValue<Type> list = new ListValue<>(TypeRegistry.get(packedList.packing.typeClass));
+		list.packed = true;
+		packedList.owner = list;
+		list.setPacked(packedList);
+		return list;
+	}
+	
+	private void setPacked(PackedList<Type> packedList)
+	{
+		super.set(packedList);
+	}
+	
+	/**
+	 * Checks if this list stores its values as packed primitives
+	 * @return
+	 */
+	public boolean packed()
+	{
+		return packed;
+	}
+	
+	/**
+	 * Switches this list to storing its values as packed primitives
+	 * <p>
+	 *     Only lists of Bytes, Booleans, Shorts, Integers, Floats, Longs and Doubles can be packed.<br>
+	 *     Values already in the list stay bound to it, so setting them still changes the list.  Any values retrieved
+	 *     later are created on demand.
+	 * </p>
+	 * @see PackedList
+	 */
+	public void pack()
+	{
+		if (PackedList.Packing.of(type) == null)
+			throw new IllegalStateException(type.name() + " lists can not be packed.");
+		if (!packed)
+		{
+			packed = true;
+			set(get());
+		}
+	}
+	
+	/**
+	 * Gets an element for reading only, without creating and binding a new Value if the list is packed
+	 * @param index
+	 * @return
+	 */
+	private Type element(int index)
+	{
+		if (get() instanceof PackedList<Type> packedList)
+			return packedList.peek(index);
+		else
+			return get(index);
+	}
+	
 	@Override
 	public String defaultName()
 	{
@@ -70,7 +196,7 @@ public class ListValue<Type extends Value<?, ?>> extends Value<List<Type>, List<
 		for (int valueIndex = 0; valueIndex < size(); valueIndex++)
 		{
 			builder.append('\t');
-			Type value = get(valueIndex);
+			Type value = element(valueIndex);
 			String string = value.toString();
 			for (int index = 0; index < string.length(); index++)
 			{
@@ -90,17 +216,106 @@ public class ListValue<Type extends Value<?, ?>> extends Value<List<Type>, List<
 	@Override
 	public byte[] asBytes()
 	{
-		ByteArrayBuilder builder = new ByteArrayBuilder();
-		builder.add(type.name());
-		builder.add(size());
-		for (Type value : this)
-			builder.add(value.asBytes());
+		ByteArrayBuilder builder = new ByteArrayBuilder(byteSize());
+		builder.add(this);
 		return builder.toPrimitiveArray();
 	}
 	
+	@Override
+	public void writeTo(DataOutput output) throws IOException
+	{
+		writeTo(output, ByteFormat.LEGACY);
+	}
+	
+	/**
+	 * Writes this list's byte data in the given format
+	 * <p>
+	 *     If the format has packed lists and this list's type can be packed, the values are written as a single block
+	 *     of packed primitives, whether or not this list itself is packed.
+	 * </p>
+	 * @param output
+	 * @param format
+	 * @throws IOException
+	 */
+	@Override
+	public void writeTo(DataOutput output, ByteFormat format) throws IOException
+	{
+		format.writeType(output, type);
+		format.writeCount(output, size());
+		PackedList.Packing packing = PackedList.Packing.of(type);
+		if (format.packedLists() && packing != null)
+		{
+			if (get() instanceof PackedList<Type> packedList)
+				packedList.writeTo(output);
+			else
+				PackedList.copyOf(packing, get()).writeTo(output);
+		}
+		else
+		{
+			for (int index = 0; index < size(); index++)
+				element(index).writeTo(output, format);
+		}
+	}
+	
+	/**
+	 * Gives the exact number of bytes that writeTo() will write for this list
+	 * <p>
+	 *     The size is cached, and recalculated only after the list or one of its values has been changed.
+	 *     Changes made directly to the underlying list from get() or subList() are not tracked.
+	 * </p>
+	 * @return
+	 */
+	@Override
+	public int byteSize()
+	{
+		return byteSize(ByteFormat.LEGACY);
+	}
+	
+	/**
+	 * Gives the exact number of bytes that writeTo() will write for this list in the given format
+	 * <p>
+	 *     Only the size for the most recently requested format is cached.
+	 * </p>
+	 * @param format
+	 * @return
+	 */
+	@Override
+	public int byteSize(ByteFormat format)
+	{
+		if (byteSize == -1 || !format.equals(byteSizeFormat))
+		{
+			int size = format.typeSize(type) + format.countSize(size());
+			PackedList.Packing packing = PackedList.Packing.of(type);
+			if (format.packedLists() && packing != null)
+				size += packing.byteLength(size());
+			else if (get() instanceof PackedList<Type> packedList)
+				size += packedList.unpackedByteSize(format);
+			else
+			{
+				for (Type value : this)
+				{
+					contain(value, this);
+					size += value.byteSize(format);
+				}
+			}
+			byteSize = size;
+			byteSizeFormat = format;
+		}
+		return byteSize;
+	}
+	
+	@Override
+	protected void invalidateByteSize()
+	{
+		byteSize = -1;
+		super.invalidateByteSize();
+	}
+	
 	@Override
 	protected Value<List<Type>, List<Value<?, ?>>> makeCopy()
 	{
+		if (packed)
+			return createPacked(type, get());
 		return create(type, get());
 	}
 	
@@ -109,12 +324,14 @@ public class ListValue<Type extends Value<?, ?>> extends Value<List<Type>, List<
 	{
 		if (value instanceof ListValue && ((ListValue<?>)value).type.equals(type))
 		{
-			List<Type> otherList = (ListValue<Type>)value;
+			ListValue<Type> otherList = (ListValue<Type>)value;
 			if (otherList.size() != size())
 				return false;
+			if (get() instanceof PackedList<Type> packedList && otherList.get() instanceof PackedList<Type> otherPacked)
+				return packedList.matches(otherPacked);
 			for (int index = 0; index < size(); index++)
 			{
-				if (!get(index).equals(otherList.get(index)))
+				if (!element(index).equals(otherList.element(index)))
 					return false;
 			}
 			return true;
@@ -128,35 +345,54 @@ public class ListValue<Type extends Value<?, ?>> extends Value<List<Type>, List<
 	
 	}
 	
-	@TypeRegistry.ByteConsumer
 	public static Consumer<Value<?, List<Value<?, ?>>>, Byte> getByteConsumer()
+	{
+		return getByteConsumer(ByteFormat.LEGACY);
+	}
+	
+	@TypeRegistry.ByteConsumer
+	public static Consumer<Value<?, List<Value<?, ?>>>, Byte> getByteConsumer(Object[] data)
+	{
+		return getByteConsumer(ByteFormat.of(data));
+	}
+	
+	public static Consumer<Value<?, List<Value<?, ?>>>, Byte> getByteConsumer(ByteFormat format)
 	{
 		return (source) ->
 		{
-			Consumer.ConsumptionResult<Value<?, String>, Byte> typeNameResult =
-					StringValue.getByteConsumer().consume(source);
-			if (!typeNameResult.success())
+			Consumer.ConsumptionResult<TypeRegistry.RegisteredType<?, ?>, Byte> typeResult = format.consumeType(source);
+			if (!typeResult.success())
 				return new Consumer.ConsumptionResult<>(source, RichStringBuilder
-						.start("Could not parse type name: ")
-						.append(typeNameResult.description()).build());
-			String typeName = (String)typeNameResult.value().get();
-			TypeRegistry.RegisteredType<?, ?> type = TypeRegistry.get(typeName);
-			if (type == null)
-				return new Consumer.ConsumptionResult<>(source, "\"" + typeName + "\" is not a registered type.");
+						.start("Could not parse type: ")
+						.append(typeResult.description()).build());
+			TypeRegistry.RegisteredType<?, ?> type = typeResult.value();
 			
-			Consumer.ConsumptionResult<Value<?, Integer>, Byte> lengthResult =
-					IntegerValue.getByteConsumer().consume(source);
+			Consumer.ConsumptionResult<Integer, Byte> lengthResult = format.consumeCount(source);
 			if (!lengthResult.success())
 				return new Consumer.ConsumptionResult<>(source, RichStringBuilder
 						.start("Could not parse length: ")
 						.append(lengthResult.description()).build());
-			int length = (int)lengthResult.value().get();
+			if (lengthResult.value() < 0)
+				return new Consumer.ConsumptionResult<>(source, "Invalid list length.");
+			int length = lengthResult.value();
+			
+			PackedList.Packing packing = PackedList.Packing.of(type);
+			if (format.packedLists() && packing != null)
+			{
+				Consumer.ConsumptionResult<PackedList<Value<?, ?>>, Byte> packedResult =
+						PackedList.consume(source, packing, length);
+				if (!packedResult.success())
+					return new Consumer.ConsumptionResult<>(source, RichStringBuilder
+							.start("Could not parse packed values: ")
+							.append(packedResult.description()).build());
+				return new Consumer.ConsumptionResult<>(adopt(packedResult.value()), source);
+			}
 			
 			ArrayList<Value<?, ?>> list = new ArrayList<>();
+			Consumer<? extends Value<?, ?>, Byte> consumer = type.byteConsumer(format);
 			for (int index = 0; index < length; index++)
 			{
-				Consumer.ConsumptionResult<? extends Value<?, ?>, Byte> valueResult =
-						type.byteConsumer().consume(source);
+				Consumer.ConsumptionResult<? extends Value<?, ?>, Byte> valueResult = consumer.consume(source);
 				if (!valueResult.success())
 					return new Consumer.ConsumptionResult<>(source, RichStringBuilder.start("Could not parse value #" + index + " as " + type.name() + ": ")
 																					 .append(valueResult.description()).build());
@@ -182,7 +418,7 @@ public class ListValue<Type extends Value<?, ?>> extends Value<List<Type>, List<
 			
 			if (source.next() != '[')
 				return new Consumer.ConsumptionResult<>(source, "Expected '[' after type name.");
-			source.skip(Data.formattingCharacters);
+			source.skipWhile(Data.formattingCharacterSet);
 			
 			ArrayList<Value<?, ?>> list = new ArrayList<>();
 			boolean expecting = false;
@@ -204,7 +440,7 @@ public class ListValue<Type extends Value<?, ?>> extends Value<List<Type>, List<
 					expecting = true;
 				}
 				index++;
-				source.skip(Data.formattingCharacters);
+				source.skipWhile(Data.formattingCharacterSet);
 			}
 			if (source.get() != ']')
 			{
@@ -226,7 +462,9 @@ public class ListValue<Type extends Value<?, ?>> extends Value<List<Type>, List<
 			makeValidationList(IntegerValue.class),
 			makeValidationList(BooleanValue.class),
 			makeValidationList(ByteValue.class),
-			makeValidationList(UUIDValue.class)
+			makeValidationList(UUIDValue.class),
+			createPacked(TypeRegistry.get(IntegerValue.class), makeValidationList(IntegerValue.class)),
+			createPacked(TypeRegistry.get(BooleanValue.class), makeValidationList(BooleanValue.class))
 		};
 	}
 	
@@ -247,7 +485,18 @@ public class ListValue<Type extends Value<?, ?>> extends Value<List<Type>, List<
 	{
 		if (list == null)
 			throw new IllegalArgumentException("Null values are not supported.");
-		if (list.size() == 0)
+		if (packed)
+		{
+			PackedList.Packing packing = PackedList.Packing.of(type);
+			PackedList<Type> packedList;
+			if (list instanceof PackedList<Type> otherPacked && otherPacked.packing == packing)
+				packedList = new PackedList<>(otherPacked);
+			else
+				packedList = new PackedList<>(packing, list);
+			packedList.owner = this;
+			super.set(packedList);
+		}
+		else if (list.size() == 0)
 			super.set(new ArrayList<>());
 		else
 		{
@@ -292,7 +541,10 @@ public class ListValue<Type extends Value<?, ?>> extends Value<List<Type>, List<
 		if (e == null)
 			throw new IllegalArgumentException("Can not add a null value");
 		if (get().add(e))
+		{
+			invalidateByteSize();
 			listeners.forEach(listener -> listener.valueAdded(e));
+		}
 		return e;
 	}
 	
@@ -303,6 +555,7 @@ public class ListValue<Type extends Value<?, ?>> extends Value<List<Type>, List<
 			throw new IllegalArgumentException("Can not add a null value");
 		if (get().add(e))
 		{
+			invalidateByteSize();
 			listeners.forEach(listener -> listener.valueAdded(e));
 			return true;
 		}
@@ -316,6 +569,7 @@ public class ListValue<Type extends Value<?, ?>> extends Value<List<Type>, List<
 		if (element == null)
 			throw new IllegalArgumentException("Can not add a null value");
 		get().add(index, element);
+		invalidateByteSize();
 		listeners.forEach(listener -> listener.valueAdded(element));
 	}
 	
@@ -325,6 +579,7 @@ public class ListValue<Type extends Value<?, ?>> extends Value<List<Type>, List<
 		if (checkForNull(c))
 			throw new IllegalArgumentException("Can not add a null value");
 		boolean changed = get().addAll(c);
+		invalidateByteSize();
 		listeners.forEach(listener -> listener.collectionAdded(c));
 		return changed;
 	}
@@ -335,6 +590,7 @@ public class ListValue<Type extends Value<?, ?>> extends Value<List<Type>, List<
 		if (checkForNull(c))
 			throw new IllegalArgumentException("Can not add a null value");
 		boolean changed = get().addAll(index, c);
+		invalidateByteSize();
 		listeners.forEach(listener -> listener.collectionAdded(c));
 		return changed;
 	}
@@ -343,6 +599,7 @@ public class ListValue<Type extends Value<?, ?>> extends Value<List<Type>, List<
 	public void clear()
 	{
 		get().clear();
+		invalidateByteSize();
 		listeners.forEach(ListChangeListener::cleared);
 	}
 	
@@ -405,6 +662,7 @@ public class ListValue<Type extends Value<?, ?>> extends Value<List<Type>, List<
 	{
 		if (get().remove(o))
 		{
+			invalidateByteSize();
 			listeners.forEach(listener -> listener.valueRemoved((Type)o));
 			return true;
 		}
@@ -417,8 +675,9 @@ public class ListValue<Type extends Value<?, ?>> extends Value<List<Type>, List<
 	{
 		if (index >= 0 && index < size())
 		{
-			Type entry = get(index);
-			remove(entry);
+			Type entry = get().remove(index);
+			invalidateByteSize();
+			listeners.forEach(listener -> listener.valueRemoved(entry));
 			return entry;
 		}
 		else
@@ -429,6 +688,7 @@ public class ListValue<Type extends Value<?, ?>> extends Value<List<Type>, List<
 	public boolean removeAll(Collection<?> c)
 	{
 		boolean changed = get().removeAll(c);
+		invalidateByteSize();
 		listeners.forEach(listener -> listener.collectionRemoved((Collection<? extends Type>) c));
 		return changed;
 	}
@@ -443,6 +703,7 @@ public class ListValue<Type extends Value<?, ?>> extends Value<List<Type>, List<
 				removed.add(value);
 		});
 		boolean changed = get().retainAll(c);
+		invalidateByteSize();
 		listeners.forEach(listener -> listener.collectionRemoved(removed));
 		return changed;
 	}
@@ -453,6 +714,7 @@ public class ListValue<Type extends Value<?, ?>> extends Value<List<Type>, List<
 		if (element == null)
 			throw new IllegalArgumentException("Can not add a null value");
 		Type old = get().set(index, element);
+		invalidateByteSize();
 		listeners.forEach(listener -> listener.valueChanged(index, element, old));
 		return old;
 	}
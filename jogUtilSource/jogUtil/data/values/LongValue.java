@@ -5,6 +5,7 @@ import jogUtil.commander.*;
 import jogUtil.data.*;
 import jogUtil.indexable.*;
 
+import java.io.*;
 import java.nio.*;
 import java.util.*;
 
@@ -55,6 +56,36 @@ public class LongValue extends Value<Long, Long>
 		return toByteData(get());
 	}
 	
+	@Override
+	public void writeTo(DataOutput output) throws IOException
+	{
+		output.writeLong(get());
+	}
+	
+	@Override
+	public void writeTo(DataOutput output, ByteFormat format) throws IOException
+	{
+		if (format.zigZag())
+			ByteFormat.writeVarLong(output, ByteFormat.zigZag(get()));
+		else
+			writeTo(output);
+	}
+	
+	@Override
+	public int byteSize()
+	{
+		return 8;
+	}
+	
+	@Override
+	public int byteSize(ByteFormat format)
+	{
+		if (format.zigZag())
+			return ByteFormat.varLongSize(ByteFormat.zigZag(get()));
+		else
+			return byteSize();
+	}
+	
 	@Override
 	protected Value<Long, Long> makeCopy()
 	{
@@ -73,11 +104,32 @@ public class LongValue extends Value<Long, Long>
 	
 	}
 	
-	@TypeRegistry.ByteConsumer
 	public static Consumer<Value<?, Long>, Byte> getByteConsumer()
+	{
+		return getByteConsumer(ByteFormat.LEGACY);
+	}
+	
+	@TypeRegistry.ByteConsumer
+	public static Consumer<Value<?, Long>, Byte> getByteConsumer(Object[] data)
+	{
+		return getByteConsumer(ByteFormat.of(data));
+	}
+	
+	public static Consumer<Value<?, Long>, Byte> getByteConsumer(ByteFormat format)
 	{
 		return (source) ->
 		{
+			if (format.zigZag())
+			{
+				Consumer.ConsumptionResult<Long, Byte> result = ByteFormat.consumeVarLong(source);
+				if (!result.success())
+					return new Consumer.ConsumptionResult<>(source, result.description());
+				return new Consumer.ConsumptionResult<>(new LongValue(ByteFormat.unZigZag(result.value())), source);
+			}
+			
+			if (source instanceof ByteIndexer byteSource && byteSource.hasBytes(8))
+				return new Consumer.ConsumptionResult<>(new LongValue(byteSource.readLong()), source);
+			
 			ArrayList<Byte> bytes = source.allNext(8);
 			if (bytes == null)
 				return new Consumer.ConsumptionResult<>(source, "Not enough available data.");
@@ -0,0 +1,656 @@
+package jogUtil.data.values;
+
+import jogUtil.*;
+import jogUtil.data.*;
+import jogUtil.indexable.*;
+
+import java.io.*;
+import java.lang.invoke.*;
+import java.nio.*;
+import java.util.*;
+
+/**
+ * A list of fixed width values stored as packed primitives
+ * <p>
+ *     Used by ListValue to hold Bytes, Booleans, Shorts, Integers, Floats, Longs and Doubles without an object for
+ *     every element.  The values are kept in a single array using the same big-endian layout they're written in, with
+ *     Booleans packed 8 to a byte, so encoding and decoding them is a single bulk copy.
+ * </p>
+ * <p>
+ *     Elements only become Value objects when they're retrieved.  A retrieved or added Value stays bound to the list
+ *     until it's removed or replaced, so setting it also changes the stored primitive.
+ * </p>
+ * @param <Type>
+ * @see ListValue#pack()
+ */
+public class PackedList<Type extends Value<?, ?>> extends AbstractList<Type> implements RandomAccess
+{
+	private static final VarHandle shorts = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle ints = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle longs = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle floats = MethodHandles.byteArrayViewVarHandle(float[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle doubles = MethodHandles.byteArrayViewVarHandle(double[].class, ByteOrder.BIG_ENDIAN);
+	
+	/**
+	 * The types that can be packed, along with how many bits each element takes up
+	 */
+	public enum Packing
+	{
+		BYTE(ByteValue.class, 8),
+		BOOLEAN(BooleanValue.class, 1),
+		SHORT(ShortValue.class, 16),
+		INTEGER(IntegerValue.class, 32),
+		FLOAT(FloatValue.class, 32),
+		LONG(LongValue.class, 64),
+		DOUBLE(DoubleValue.class, 64);
+		
+		final Class<?> typeClass;
+		final int bits;
+		
+		Packing(Class<?> typeClass, int bits)
+		{
+			this.typeClass = typeClass;
+			this.bits = bits;
+		}
+		
+		/**
+		 * Finds how a type would be packed
+		 * <p>
+		 *     If the type can't be packed, null is returned.
+		 * </p>
+		 * @param type
+		 * @return
+		 */
+		public static Packing of(TypeRegistry.RegisteredType<?, ?> type)
+		{
+			for (Packing packing : values())
+			{
+				if (packing.typeClass.equals(type.typeClass()))
+					return packing;
+			}
+			return null;
+		}
+		
+		/**
+		 * The number of bytes the given number of elements take up
+		 * @param count
+		 * @return
+		 */
+		public int byteLength(int count)
+		{
+			return (int)(((long)count * bits + 7) / 8);
+		}
+	}
+	
+	final Packing packing;
+	byte[] data;
+	int size = 0;
+	Binding<?>[] bindings = null;
+	ListValue<?> owner = null;
+	
+	public PackedList(Packing packing)
+	{
+		this(packing, 0);
+	}
+	
+	public PackedList(Packing packing, int capacity)
+	{
+		this.packing = packing;
+		data = new byte[packing.byteLength(Math.max(capacity, 8))];
+	}
+	
+	public PackedList(Packing packing, Collection<? extends Type> values)
+	{
+		this(packing, values.size());
+		addAll(values);
+	}
+	
+	/**
+	 * Creates a copy of another packed list, without copying or binding any of its Values
+	 * @param list
+	 */
+	public PackedList(PackedList<Type> list)
+	{
+		packing = list.packing;
+		data = Arrays.copyOf(list.data, Math.max(list.packing.byteLength(list.size), 1));
+		size = list.size;
+	}
+	
+	public PackedList(byte[] values)
+	{
+		this(Packing.BYTE, values.length);
+		System.arraycopy(values, 0, data, 0, values.length);
+		size = values.length;
+	}
+	
+	public PackedList(boolean[] values)
+	{
+		this(Packing.BOOLEAN, values.length);
+		for (int index = 0; index < values.length; index++)
+			setBit(index, values[index]);
+		size = values.length;
+	}
+	
+	public PackedList(short[] values)
+	{
+		this(Packing.SHORT, values.length);
+		ByteBuffer.wrap(data).asShortBuffer().put(values);
+		size = values.length;
+	}
+	
+	public PackedList(int[] values)
+	{
+		this(Packing.INTEGER, values.length);
+		ByteBuffer.wrap(data).asIntBuffer().put(values);
+		size = values.length;
+	}
+	
+	public PackedList(float[] values)
+	{
+		this(Packing.FLOAT, values.length);
+		ByteBuffer.wrap(data).asFloatBuffer().put(values);
+		size = values.length;
+	}
+	
+	public PackedList(long[] values)
+	{
+		this(Packing.LONG, values.length);
+		ByteBuffer.wrap(data).asLongBuffer().put(values);
+		size = values.length;
+	}
+	
+	public PackedList(double[] values)
+	{
+		this(Packing.DOUBLE, values.length);
+		ByteBuffer.wrap(data).asDoubleBuffer().put(values);
+		size = values.length;
+	}
+	
+	/**
+	 * Packs the values in a collection, without binding them to the new list
+	 * @param packing
+	 * @param values
+	 * @return
+	 * @param <Type>
+	 */
+	public static <Type extends Value<?, ?>> PackedList<Type> copyOf(Packing packing, Collection<? extends Type> values)
+	{
+		PackedList<Type> list = new PackedList<>(packing, values.size());
+		for (Type value : values)
+		{
+			list.checkType(value);
+			list.store(list.size++, value);
+		}
+		return list;
+	}
+	
+	public Packing packing()
+	{
+		return packing;
+	}
+	
+	@Override
+	public int size()
+	{
+		return size;
+	}
+	
+	/**
+	 * Gets an element as a Value, binding it to this list
+	 * <p>
+	 *     The same Value is returned each time, until the element is removed or replaced.
+	 * </p>
+	 * @param index
+	 * @return
+	 */
+	@Override
+	public Type get(int index)
+	{
+		Objects.checkIndex(index, size);
+		if (bindings == null)
+			bindings = new Binding<?>[data.length * 8 / packing.bits];
+		if (bindings[index] == null)
+			bind(index, create(index));
+		return element(bindings[index]);
+	}
+	
+	/**
+	 * Gets an element as a new Value that isn't bound to this list
+	 * <p>
+	 *     Setting the returned Value has no effect on this list.
+	 * </p>
+	 * @param index
+	 * @return
+	 */
+	public Type peek(int index)
+	{
+		Objects.checkIndex(index, size);
+		return create(index);
+	}
+	
+	@Override
+	public Type set(int index, Type element)
+	{
+		Objects.checkIndex(index, size);
+		checkType(element);
+		Type old = get(index);
+		unbind(index);
+		store(index, element);
+		bind(index, element);
+		return old;
+	}
+	
+	@Override
+	public void add(int index, Type element)
+	{
+		Objects.checkIndex(index, size + 1);
+		checkType(element);
+		ensureCapacity(size + 1);
+		if (packing == Packing.BOOLEAN)
+		{
+			for (int position = size; position > index; position--)
+				setBit(position, bit(position - 1));
+		}
+		else
+		{
+			int width = packing.bits / 8;
+			System.arraycopy(data, index * width, data, (index + 1) * width, (size - index) * width);
+		}
+		if (bindings != null)
+		{
+			System.arraycopy(bindings, index, bindings, index + 1, size - index);
+			bindings[index] = null;
+			for (int position = index + 1; position <= size; position++)
+			{
+				if (bindings[position] != null)
+					bindings[position].index = position;
+			}
+		}
+		size++;
+		modCount++;
+		store(index, element);
+		bind(index, element);
+	}
+	
+	@Override
+	public Type remove(int index)
+	{
+		Objects.checkIndex(index, size);
+		Type old = get(index);
+		unbind(index);
+		if (packing == Packing.BOOLEAN)
+		{
+			for (int position = index; position < size - 1; position++)
+				setBit(position, bit(position + 1));
+			//the freed bit is padding now, and padding is always 0 so equal lists write the same bytes
+			setBit(size - 1, false);
+		}
+		else
+		{
+			int width = packing.bits / 8;
+			System.arraycopy(data, (index + 1) * width, data, index * width, (size - index - 1) * width);
+		}
+		if (bindings != null)
+		{
+			System.arraycopy(bindings, index + 1, bindings, index, size - index - 1);
+			bindings[size - 1] = null;
+			for (int position = index; position < size - 1; position++)
+			{
+				if (bindings[position] != null)
+					bindings[position].index = position;
+			}
+		}
+		size--;
+		modCount++;
+		return old;
+	}
+	
+	@Override
+	public void clear()
+	{
+		for (int index = 0; index < size; index++)
+			unbind(index);
+		if (packing == Packing.BOOLEAN)
+			Arrays.fill(data, 0, packing.byteLength(size), (byte)0);
+		size = 0;
+		modCount++;
+	}
+	
+	/**
+	 * Finds an element by comparing its stored primitive, without creating a Value for each element
+	 * @param object
+	 * @return
+	 */
+	@Override
+	public int indexOf(Object object)
+	{
+		if (object == null || !packing.typeClass.equals(object.getClass()))
+			return -1;
+		PackedList<Type> single = packSingle((Value<?, ?>)object);
+		for (int index = 0; index < size; index++)
+		{
+			if (matches(index, single))
+				return index;
+		}
+		return -1;
+	}
+	
+	@Override
+	public int lastIndexOf(Object object)
+	{
+		if (object == null || !packing.typeClass.equals(object.getClass()))
+			return -1;
+		PackedList<Type> single = packSingle((Value<?, ?>)object);
+		for (int index = size - 1; index >= 0; index--)
+		{
+			if (matches(index, single))
+				return index;
+		}
+		return -1;
+	}
+	
+	@Override
+	public boolean contains(Object object)
+	{
+		return indexOf(object) != -1;
+	}
+	
+	/**
+	 * Checks if another packed list holds exactly the same primitives
+	 * @param list
+	 * @return
+	 */
+	public boolean matches(PackedList<?> list)
+	{
+		if (list.packing != packing || list.size != size)
+			return false;
+		if (packing != Packing.BOOLEAN)
+			return Arrays.equals(data, 0, packing.byteLength(size), list.data, 0, packing.byteLength(size));
+		for (int index = 0; index < size; index++)
+		{
+			if (bit(index) != list.bit(index))
+				return false;
+		}
+		return true;
+	}
+	
+	private PackedList<Type> packSingle(Value<?, ?> value)
+	{
+		PackedList<Type> single = new PackedList<>(packing, 1);
+		single.store(0, value);
+		single.size = 1;
+		return single;
+	}
+	
+	private boolean matches(int index, PackedList<Type> single)
+	{
+		if (packing == Packing.BOOLEAN)
+			return bit(index) == single.bit(0);
+		int width = packing.bits / 8;
+		return Arrays.equals(data, index * width, (index + 1) * width, single.data, 0, width);
+	}
+	
+	public boolean getBoolean(int index)
+	{
+		Objects.checkIndex(index, size);
+		if (packing == Packing.BOOLEAN)
+			return bit(index);
+		return getLong(index) != 0;
+	}
+	
+	/**
+	 * Gets an element as a long, without creating a Value for it
+	 * <p>
+	 *     Floating point elements are converted, Booleans are 1 or 0.
+	 * </p>
+	 * @param index
+	 * @return
+	 */
+	public long getLong(int index)
+	{
+		Objects.checkIndex(index, size);
+		return switch (packing)
+		{
+			case BYTE -> data[index];
+			case BOOLEAN -> bit(index) ? 1 : 0;
+			case SHORT -> (short)shorts.get(data, index * 2);
+			case INTEGER -> (int)ints.get(data, index * 4);
+			case FLOAT -> (long)(float)floats.get(data, index * 4);
+			case LONG -> (long)longs.get(data, index * 8);
+			case DOUBLE -> (long)(double)doubles.get(data, index * 8);
+		};
+	}
+	
+	/**
+	 * Gets an element as a double, without creating a Value for it
+	 * <p>
+	 *     Booleans are 1 or 0.
+	 * </p>
+	 * @param index
+	 * @return
+	 */
+	public double getDouble(int index)
+	{
+		Objects.checkIndex(index, size);
+		return switch (packing)
+		{
+			case FLOAT -> (float)floats.get(data, index * 4);
+			case DOUBLE -> (double)doubles.get(data, index * 8);
+			default -> getLong(index);
+		};
+	}
+	
+	/**
+	 * Creates a Value for an element
+	 * <p>
+	 *     The Value's class always matches the packing, which is the only thing this list's type can be.
+	 * </p>
+	 * @param index
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	private Type create(int index)
+	{
+		return (Type)switch (packing)
+		{
+			case BYTE -> new ByteValue(data[index]);
+			case BOOLEAN -> new BooleanValue(bit(index));
+			case SHORT -> new ShortValue((short)shorts.get(data, index * 2));
+			case INTEGER -> new IntegerValue((int)ints.get(data, index * 4));
+			case FLOAT -> new FloatValue((float)floats.get(data, index * 4));
+			case LONG -> new LongValue((long)longs.get(data, index * 8));
+			case DOUBLE -> new DoubleValue((double)doubles.get(data, index * 8));
+		};
+	}
+	
+	@SuppressWarnings("unchecked")
+	private Type element(Binding<?> binding)
+	{
+		return (Type)binding.value;
+	}
+	
+	private void store(int index, Value<?, ?> value)
+	{
+		switch (packing)
+		{
+			case BYTE -> data[index] = (Byte)value.get();
+			case BOOLEAN -> setBit(index, (Boolean)value.get());
+			case SHORT ->
+			{
+				short primitive = (Short)value.get();
+				shorts.set(data, index * 2, primitive);
+			}
+			case INTEGER ->
+			{
+				int primitive = (Integer)value.get();
+				ints.set(data, index * 4, primitive);
+			}
+			case FLOAT ->
+			{
+				float primitive = (Float)value.get();
+				floats.set(data, index * 4, primitive);
+			}
+			case LONG ->
+			{
+				long primitive = (Long)value.get();
+				longs.set(data, index * 8, primitive);
+			}
+			case DOUBLE ->
+			{
+				double primitive = (Double)value.get();
+				doubles.set(data, index * 8, primitive);
+			}
+		}
+	}
+	
+	private boolean bit(int index)
+	{
+		return (data[index >> 3] & (0x80 >> (index & 7))) != 0;
+	}
+	
+	private void setBit(int index, boolean value)
+	{
+		if (value)
+			data[index >> 3] |= (byte)(0x80 >> (index & 7));
+		else
+			data[index >> 3] &= (byte)~(0x80 >> (index & 7));
+	}
+	
+	private void checkType(Type element)
+	{
+		if (element == null)
+			throw new IllegalArgumentException("Can not add a null value.");
+		if (!packing.typeClass.equals(element.getClass()))
+			throw new IllegalArgumentException("A " + packing + " packed list can not contain a " + element.getClass().getName() + ".");
+	}
+	
+	private void ensureCapacity(int count)
+	{
+		int length = packing.byteLength(count);
+		if (length > data.length)
+			data = Arrays.copyOf(data, Math.max(length, data.length * 2));
+		if (bindings != null && bindings.length < count)
+			bindings = Arrays.copyOf(bindings, Math.max(count, bindings.length * 2));
+	}
+	
+	/**
+	 * Keeps the stored primitive up to date with a Value that has been handed out
+	 */
+	static final class Binding<ValueType> implements Value.ValueChangeListener<ValueType>
+	{
+		final PackedList<?> list;
+		int index;
+		final Value<ValueType, ?> value;
+		
+		Binding(PackedList<?> list, int index, Value<ValueType, ?> value)
+		{
+			this.list = list;
+			this.index = index;
+			this.value = value;
+			value.addChangeListener(this);
+		}
+		
+		@Override
+		public void change(ValueType oldValue, ValueType newValue)
+		{
+			list.store(index, value);
+			if (list.owner != null)
+				list.owner.invalidateByteSize();
+		}
+		
+		void release()
+		{
+			value.removeChangeListener(this);
+		}
+	}
+	
+	private void bind(int index, Type value)
+	{
+		if (bindings == null)
+			bindings = new Binding<?>[data.length * 8 / packing.bits];
+		Value<?, ?> bound = value;
+		bindings[index] = new Binding<>(this, index, bound);
+	}
+	
+	private void unbind(int index)
+	{
+		if (bindings == null || bindings[index] == null)
+			return;
+		bindings[index].release();
+		bindings[index] = null;
+	}
+	
+	/**
+	 * Writes the packed elements
+	 * <p>
+	 *     Only the elements themselves are written, the count has to be written separately.
+	 * </p>
+	 * @param output
+	 * @throws IOException
+	 */
+	public void writeTo(DataOutput output) throws IOException
+	{
+		output.write(data, 0, packing.byteLength(size));
+	}
+	
+	/**
+	 * Gives the number of bytes the elements take up when each one is written as a separate Value
+	 * <p>
+	 *     Every element has the same width unless the format writes Shorts, Integers and Longs as variable length
+	 *     numbers, in which case only the stored primitives are read.  No Values are created either way.
+	 * </p>
+	 * @param format
+	 * @return
+	 */
+	public int unpackedByteSize(ByteFormat format)
+	{
+		boolean variable = format.zigZag()
+						   && (packing == Packing.SHORT || packing == Packing.INTEGER || packing == Packing.LONG);
+		if (!variable)
+			return size * Math.max(packing.bits / 8, 1);
+		int byteSize = 0;
+		for (int index = 0; index < size; index++)
+			byteSize += ByteFormat.varLongSize(ByteFormat.zigZag(getLong(index)));
+		return byteSize;
+	}
+	
+	/**
+	 * Reads packed elements written by writeTo()
+	 * @param source
+	 * @param packing
+	 * @param count number of elements to read
+	 * @return a failed result if the count is negative, or too large for its bytes to fit in an array.
+	 * @param <Type>
+	 */
+	public static <Type extends Value<?, ?>> Consumer.ConsumptionResult<PackedList<Type>, Byte> consume(
+			Indexer<Byte> source, Packing packing, int count)
+	{
+		if (count < 0 || ((long)count * packing.bits + 7) / 8 > Integer.MAX_VALUE - 8)
+			return new Consumer.ConsumptionResult<>(source, "Invalid packed element count " + count + ".");
+		int length = packing.byteLength(count);
+		//the list is only created once its data is known to be there, so a corrupt count can't allocate a huge array
+		PackedList<Type> list;
+		if (source instanceof ByteIndexer byteSource && !byteSource.filtered())
+		{
+			if (!byteSource.hasBytes(length))
+				return new Consumer.ConsumptionResult<>(source, "Not enough available data.");
+			list = new PackedList<>(packing, count);
+			byteSource.readBytes(list.data, 0, length);
+		}
+		else
+		{
+			ByteArrayBuilder bytes = new ByteArrayBuilder();
+			while (bytes.size() < length && !source.atEnd())
+				bytes.add(source.next());
+			if (bytes.size() < length)
+				return new Consumer.ConsumptionResult<>(source, "Not enough available data.");
+			list = new PackedList<>(packing, count);
+			for (int index = 0; index < length; index++)
+				list.data[index] = bytes.get(index);
+		}
+		if (packing == Packing.BOOLEAN && (count & 7) != 0)
+			list.data[length - 1] &= (byte)(0xFF00 >> (count & 7));
+		list.size = count;
+		return new Consumer.ConsumptionResult<>(list, source);
+	}
+}
\ No newline at end of file
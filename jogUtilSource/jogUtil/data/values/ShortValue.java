@@ -5,6 +5,7 @@ import jogUtil.commander.*;
 import jogUtil.data.*;
 import jogUtil.indexable.*;
 
+import java.io.*;
 import java.nio.*;
 import java.util.*;
 
@@ -55,6 +56,36 @@ public class ShortValue extends Value<Short, Short>
 		return toByteData(get());
 	}
 	
+	@Override
+	public void writeTo(DataOutput output) throws IOException
+	{
+		output.writeShort(get());
+	}
+	
+	@Override
+	public void writeTo(DataOutput output, ByteFormat format) throws IOException
+	{
+		if (format.zigZag())
+			ByteFormat.writeVarLong(output, ByteFormat.zigZag(get()));
+		else
+			writeTo(output);
+	}
+	
+	@Override
+	public int byteSize()
+	{
+		return 2;
+	}
+	
+	@Override
+	public int byteSize(ByteFormat format)
+	{
+		if (format.zigZag())
+			return ByteFormat.varLongSize(ByteFormat.zigZag(get()));
+		else
+			return byteSize();
+	}
+	
 	@Override
 	protected Value<Short, Short> makeCopy()
 	{
@@ -73,11 +104,35 @@ public class ShortValue extends Value<Short, Short>
 	
 	}
 	
-	@TypeRegistry.ByteConsumer
 	public static Consumer<Value<?, Short>, Byte> getByteConsumer()
+	{
+		return getByteConsumer(ByteFormat.LEGACY);
+	}
+	
+	@TypeRegistry.ByteConsumer
+	public static Consumer<Value<?, Short>, Byte> getByteConsumer(Object[] data)
+	{
+		return getByteConsumer(ByteFormat.of(data));
+	}
+	
+	public static Consumer<Value<?, Short>, Byte> getByteConsumer(ByteFormat format)
 	{
 		return (source) ->
 		{
+			if (format.zigZag())
+			{
+				Consumer.ConsumptionResult<Long, Byte> result = ByteFormat.consumeVarLong(source);
+				if (!result.success())
+					return new Consumer.ConsumptionResult<>(source, result.description());
+				long value = ByteFormat.unZigZag(result.value());
+				if (value < Short.MIN_VALUE || value > Short.MAX_VALUE)
+					return new Consumer.ConsumptionResult<>(source, "Number is out of range.");
+				return new Consumer.ConsumptionResult<>(new ShortValue((short)value), source);
+			}
+			
+			if (source instanceof ByteIndexer byteSource && byteSource.hasBytes(2))
+				return new Consumer.ConsumptionResult<>(new ShortValue(byteSource.readShort()), source);
+			
 			ArrayList<Byte> bytes = source.allNext(2);
 			if (bytes == null)
 				return new Consumer.ConsumptionResult<>(source, "Not enough available data.");
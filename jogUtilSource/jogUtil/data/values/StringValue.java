@@ -5,6 +5,7 @@ import jogUtil.commander.*;
 import jogUtil.data.*;
 import jogUtil.indexable.*;
 
+import java.io.*;
 import java.nio.*;
 import java.nio.charset.*;
 import java.util.*;
@@ -84,6 +85,30 @@ public class StringValue extends Value<String, String>
 		return toByteData(get());
 	}
 	
+	@Override
+	public void writeTo(DataOutput output) throws IOException
+	{
+		writeByteData(get(), output);
+	}
+	
+	@Override
+	public void writeTo(DataOutput output, ByteFormat format) throws IOException
+	{
+		format.writeString(output, get());
+	}
+	
+	@Override
+	public int byteSize()
+	{
+		return byteSize(get());
+	}
+	
+	@Override
+	public int byteSize(ByteFormat format)
+	{
+		return format.stringSize(get());
+	}
+	
 	@Override
 	protected Value<String, String> makeCopy()
 	{
@@ -111,11 +136,41 @@ public class StringValue extends Value<String, String>
 			return new Consumer.ConsumptionResult<>(source, result.description());
 	}
 	
-	@TypeRegistry.ByteConsumer
 	public static Consumer<Value<?, String>, Byte> getByteConsumer()
+	{
+		return getByteConsumer(ByteFormat.LEGACY);
+	}
+	
+	@TypeRegistry.ByteConsumer
+	public static Consumer<Value<?, String>, Byte> getByteConsumer(Object[] data)
+	{
+		return getByteConsumer(ByteFormat.of(data));
+	}
+	
+	public static Consumer<Value<?, String>, Byte> getByteConsumer(ByteFormat format)
 	{
 		return (source) ->
 		{
+			if (format.lengthPrefixedStrings())
+			{
+				Consumer.ConsumptionResult<String, Byte> result = format.consumeString(source);
+				if (result.success())
+					return new Consumer.ConsumptionResult<>(new StringValue(result.value()), source);
+				else
+					return new Consumer.ConsumptionResult<>(source, result.description());
+			}
+			
+			if (source instanceof ByteIndexer byteSource && !byteSource.filtered())
+			{
+				int length = byteSource.indexOf((byte)0);
+				if (length != -1)
+				{
+					String string = new String(byteSource.readBytes(length), StandardCharsets.UTF_8);
+					byteSource.skip(false);
+					return new Consumer.ConsumptionResult<>(new StringValue(string), source);
+				}
+			}
+			
 			ByteArrayBuilder builder = new ByteArrayBuilder();
 			boolean stringEnded = false;
 			while (!source.atEnd() && !stringEnded)
@@ -151,29 +206,34 @@ public class StringValue extends Value<String, String>
 				builder.append(source.next());
 				boolean unsanitary = false;
 				boolean closed = false;
-				while(!source.atEnd())
+				if (source instanceof CharIndexer characters)
+					closed = consumeQuoted(characters, builder);
+				else
 				{
-					char ch = source.next();
-					if (unsanitary)
+					while(!source.atEnd())
 					{
-						builder.append(ch);
-						unsanitary = false;
-					}
-					else
-					{
-						if (ch == '\\')
+						char ch = source.next();
+						if (unsanitary)
 						{
 							builder.append(ch);
-							unsanitary = true;
+							unsanitary = false;
 						}
-						else if (ch == '"')
+						else
 						{
-							builder.append(ch);
-							closed = true;
-							break;
+							if (ch == '\\')
+							{
+								builder.append(ch);
+								unsanitary = true;
+							}
+							else if (ch == '"')
+							{
+								builder.append(ch);
+								closed = true;
+								break;
+							}
+							else
+								builder.append(ch);
 						}
-						else
-							builder.append(ch);
 					}
 				}
 				if (!closed)
@@ -188,6 +248,35 @@ public class StringValue extends Value<String, String>
 		};
 	}
 	
+	private static final CharacterSet quoteOrEscape = CharacterSet.of('"', '\\');
+	private static final CharacterSet asciiDigits = CharacterSet.range('0', '9');
+	
+	/**
+	 * Reads the rest of a quoted string, copying everything between escapes and quotes in bulk
+	 * <p>
+	 *     The characters are appended exactly as they appear, including the escapes and the closing quote.
+	 * </p>
+	 * @param source
+	 * @param builder
+	 * @return whether the closing quote was found
+	 */
+	private static boolean consumeQuoted(CharIndexer source, StringBuilder builder)
+	{
+		while (true)
+		{
+			builder.append(source.readUntil(quoteOrEscape));
+			if (source.atEnd())
+				return false;
+			char ch = source.next();
+			builder.append(ch);
+			if (ch == '"')
+				return true;
+			if (source.atEnd())
+				return false;
+			builder.append(source.next());
+		}
+	}
+	
 	/**
 	 * Encodes a string using UTF-8
 	 * @param string
@@ -199,26 +288,71 @@ public class StringValue extends Value<String, String>
 			return new byte[1];
 		else
 		{
-			byte[] data = StandardCharsets.UTF_8.encode(string).array();
-			//apparently we sometimes seem to get two 0 bytes at the end of the array
-			//so to ensure consistency we check for this case and remove the excess bytes
-			if (data.length > 1 && data[data.length - 2] == 0)
-			{
-				ByteArrayBuilder builder = new ByteArrayBuilder(data);
-				while (builder.size() > 1 && builder.get(builder.size() - 2) == 0)
-					builder.remove(builder.size() - 2);
-				data = builder.toPrimitiveArray();
-			}
-			//it's apparently possible for a 0 byte to not be added at the end
-			//so let's ensure we have one
-			if (data.length == 0 || data[data.length - 1] != 0)
+			//the extra byte left at the end of the copy is the 0 terminator
+			byte[] data = string.getBytes(StandardCharsets.UTF_8);
+			return Arrays.copyOf(data, data.length + 1);
+		}
+	}
+	
+	/**
+	 * Writes a string to the given output using UTF-8
+	 * <p>
+	 *     Writes the same bytes as toByteData(String).
+	 * </p>
+	 * @param string
+	 * @param output
+	 * @throws IOException
+	 * @see #toByteData(String)
+	 */
+	public static void writeByteData(String string, DataOutput output) throws IOException
+	{
+		if (string != null && string.length() != 0)
+			output.write(string.getBytes(StandardCharsets.UTF_8));
+		output.writeByte(0);
+	}
+	
+	/**
+	 * Gives the number of bytes toByteData(String) will produce for a string, without encoding it
+	 * @param string
+	 * @return
+	 * @see #toByteData(String)
+	 */
+	public static int byteSize(String string)
+	{
+		//one byte for the 0 terminator
+		return encodedLength(string) + 1;
+	}
+	
+	/**
+	 * Gives the number of bytes a string takes up when encoded with UTF-8, without encoding it
+	 * @param string
+	 * @return
+	 */
+	public static int encodedLength(String string)
+	{
+		if (string == null)
+			return 0;
+		int size = 0;
+		for (int index = 0; index < string.length(); index++)
+		{
+			char ch = string.charAt(index);
+			if (ch < 0x80)
+				size++;
+			else if (ch < 0x800)
+				size += 2;
+			else if (Character.isHighSurrogate(ch) && index + 1 < string.length()
+					 && Character.isLowSurrogate(string.charAt(index + 1)))
 			{
-				ByteArrayBuilder builder = new ByteArrayBuilder(data);
-				builder.add((byte)0);
-				data = builder.toPrimitiveArray();
+				size += 4;
+				index++;
 			}
-			return data;
+			//unpaired surrogates get replaced by a single '?' when encoded
+			else if (Character.isSurrogate(ch))
+				size++;
+			else
+				size += 3;
 		}
+		return size;
 	}
 	
 	/**
@@ -344,7 +478,7 @@ public class StringValue extends Value<String, String>
 	 * </p>
 	 * @param string
 	 * @return
-	 * @see #sanitize(String) 
+	 * @see #sanitize(String)
 	 */
 	public static String pack(String string)
 	{
@@ -373,14 +507,14 @@ public class StringValue extends Value<String, String>
 			return null;
 	}
 	
-	public static Indexer<Character> indexer(String string)
+	/**
+	 * Creates an indexer that reads straight from a string, without copying it
+	 * @param string
+	 * @return
+	 */
+	public static CharIndexer indexer(String string)
 	{
-		IndexableArray<Character> array = new IndexableArray<>(string.length());
-		for (int index = 0; index < string.length(); index++)
-		{
-			array.set(index, string.charAt(index));
-		}
-		return array.iterator();
+		return new IndexableCharSequence(string).iterator();
 	}
 	
 	/**
@@ -394,6 +528,8 @@ public class StringValue extends Value<String, String>
 	 */
 	public static String consumeString(Indexer<Character> source, char endMarker)
 	{
+		if (source instanceof CharIndexer characters)
+			return characters.readUntil(endMarker);
 		StringBuilder builder = new StringBuilder();
 		while (!source.atEnd() && source.get() != endMarker)
 			builder.append(source.next());
@@ -408,6 +544,8 @@ public class StringValue extends Value<String, String>
 	 */
 	public static String consumeCharacters(Indexer<Character> source, char[] filter)
 	{
+		if (source instanceof CharIndexer characters)
+			return characters.readWhile(CharacterSet.of(filter));
 		StringBuilder builder = new StringBuilder();
 		while (!source.atEnd() && CharacterValue.containsChar(source.get(), filter))
 			builder.append(source.next());
@@ -421,6 +559,8 @@ public class StringValue extends Value<String, String>
 	 */
 	public static String consumeString(Indexer<Character> source)
 	{
+		if (source instanceof CharIndexer characters)
+			return characters.readString(Integer.MAX_VALUE);
 		StringBuilder builder = new StringBuilder();
 		while (!source.atEnd())
 			builder.append(source.next());
@@ -438,6 +578,9 @@ public class StringValue extends Value<String, String>
 	public static String consumeNumericString(Indexer<Character> source)
 	{
 		StringBuilder builder = new StringBuilder();
+		//ASCII digits are read in bulk, anything else Character.isDigit() accepts is picked up one at a time
+		if (source instanceof CharIndexer characters)
+			builder.append(characters.readWhile(asciiDigits));
 		while (!source.atEnd() && Character.isDigit(source.get()))
 			builder.append(source.next());
 		return builder.toString();
@@ -455,6 +598,13 @@ public class StringValue extends Value<String, String>
 	 */
 	public static String consumeString(Indexer<Character> source, int amount, boolean requireAll)
 	{
+		if (source instanceof CharIndexer characters)
+		{
+			String string = characters.readString(amount);
+			if (requireAll && string.length() < amount)
+				return null;
+			return string;
+		}
 		StringBuilder builder = new StringBuilder();
 		while (!source.atEnd() && builder.length() < amount)
 			builder.append(source.next());
@@ -489,24 +639,31 @@ public class StringValue extends Value<String, String>
 	 */
 	public static boolean consumeSequence(Indexer<Character> source, String sequence, boolean caseSensitive)
 	{
-		int position = source.position();
-		int index = 0;
-		if (!caseSensitive)
-			sequence = sequence.toLowerCase();
-		while (!source.atEnd())
+		long start = source.checkpoint();
+		try
 		{
-			char ch = source.next();
+			int index = 0;
 			if (!caseSensitive)
-				ch = Character.toLowerCase(ch);
-			if (sequence.charAt(index) == ch)
-				index++;
-			else
-				break;
-			if (index == sequence.length())
-				return true;
+				sequence = sequence.toLowerCase();
+			while (!source.atEnd())
+			{
+				char ch = source.next();
+				if (!caseSensitive)
+					ch = Character.toLowerCase(ch);
+				if (sequence.charAt(index) == ch)
+					index++;
+				else
+					break;
+				if (index == sequence.length())
+					return true;
+			}
+			source.reset(start);
+			return false;
+		}
+		finally
+		{
+			source.discard(start);
 		}
-		source.setPosition(position);
-		return false;
 	}
 	
 	/**
@@ -5,6 +5,7 @@ import jogUtil.commander.*;
 import jogUtil.data.*;
 import jogUtil.indexable.*;
 
+import java.io.*;
 import java.util.*;
 
 public class UUIDValue extends Value<UUID, UUID>
@@ -54,6 +55,19 @@ public class UUIDValue extends Value<UUID, UUID>
 		return toByteData(get());
 	}
 	
+	@Override
+	public void writeTo(DataOutput output) throws IOException
+	{
+		output.writeLong(get().getMostSignificantBits());
+		output.writeLong(get().getLeastSignificantBits());
+	}
+	
+	@Override
+	public int byteSize()
+	{
+		return 16;
+	}
+	
 	@Override
 	protected Value<UUID, UUID> makeCopy()
 	{
@@ -77,6 +91,9 @@ public class UUIDValue extends Value<UUID, UUID>
 	{
 		return (source) ->
 		{
+			if (source instanceof ByteIndexer byteSource && byteSource.hasBytes(16))
+				return new Consumer.ConsumptionResult<>(new UUIDValue(new UUID(byteSource.readLong(), byteSource.readLong())), source);
+			
 			ArrayList<Byte> bytes = source.allNext(16);
 			if (bytes == null)
 				return new Consumer.ConsumptionResult<>(source, "Not enough available data.");
@@ -0,0 +1,87 @@
+package jogUtil.indexable;
+
+import java.nio.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * A pool of equally sized direct buffers that can be shared by many indexables
+ * <p>
+ *     Direct buffers are expensive to allocate and are only freed by the garbage collector, so buffers that are no
+ *     longer needed are kept for reuse instead, up to the pool's capacity.<br>
+ *     The buffer size must be a power of two.
+ * </p>
+ * @see IndexableChannel
+ */
+public class ByteBufferPool
+{
+	/**
+	 * The pool used by default, with 16 KiB buffers and room to keep 16 MiB of them
+	 */
+	public static final ByteBufferPool shared = new ByteBufferPool(1 << 14, 1024);
+	
+	final int bufferSize;
+	final int capacity;
+	private final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pooled = new AtomicInteger();
+	
+	/**
+	 * Creates an empty pool
+	 * @param bufferSize size of each buffer in bytes, which must be a power of two
+	 * @param capacity maximum number of unused buffers to keep
+	 */
+	public ByteBufferPool(int bufferSize, int capacity)
+	{
+		if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1)
+			throw new RuntimeException("Buffer size must be a power of two, got " + bufferSize + ".");
+		this.bufferSize = bufferSize;
+		this.capacity = capacity;
+	}
+	
+	public int bufferSize()
+	{
+		return bufferSize;
+	}
+	
+	/**
+	 * Takes an unused buffer from the pool, or allocates a new one if the pool is empty
+	 * @return a cleared, big-endian buffer
+	 */
+	public ByteBuffer take()
+	{
+		ByteBuffer buffer = buffers.poll();
+		if (buffer == null)
+			return ByteBuffer.allocateDirect(bufferSize);
+		pooled.decrementAndGet();
+		buffer.clear();
+		return buffer.order(ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Returns a buffer to the pool once it's no longer used
+	 * <p>
+	 *     Buffers of the wrong size are ignored, as are any that don't fit in the pool.
+	 * </p>
+	 * @param buffer
+	 */
+	public void give(ByteBuffer buffer)
+	{
+		if (buffer == null || buffer.capacity() != bufferSize || !buffer.isDirect())
+			return;
+		if (pooled.incrementAndGet() > capacity)
+		{
+			pooled.decrementAndGet();
+			return;
+		}
+		buffers.offer(buffer);
+	}
+	
+	/**
+	 * Gives the number of unused buffers currently in the pool.
+	 * @return
+	 */
+	public int available()
+	{
+		return pooled.get();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+package jogUtil.indexable;
+
+/**
+ * An Indexable of bytes that can also be read without boxing each value
+ * <p>
+ *     Implementations only need to provide getByte(), but should override the other primitive accessors when the
+ *     underlying storage can provide them more efficiently.  All multi-byte values are read big-endian.<br>
+ *     Iterating over a ByteIndexable produces a ByteIndexer, which byte consumers can use to read whole primitives
+ *     at once.
+ * </p>
+ */
+public abstract class ByteIndexable extends Indexable<Byte>
+{
+	protected ByteIndexable()
+	{
+	
+	}
+	
+	/**
+	 * @param capacity
+	 * @see Indexable#Indexable(int)
+	 */
+	protected ByteIndexable(int capacity)
+	{
+		super(capacity);
+	}
+	
+	/**
+	 * Gets the byte at the given index without boxing it
+	 * <p>
+	 *     The index must be less than the current size.
+	 * </p>
+	 * @param index
+	 * @return
+	 */
+	public abstract byte getByte(int index);
+	
+	/**
+	 * Copies a range of bytes into the given array
+	 * @param index index of the first byte to copy
+	 * @param destination
+	 * @param offset where in the destination to start copying to
+	 * @param length number of bytes to copy
+	 */
+	public void getBytes(int index, byte[] destination, int offset, int length)
+	{
+		for (int position = 0; position < length; position++)
+			destination[offset + position] = getByte(index + position);
+	}
+	
+	public short getShort(int index)
+	{
+		return (short)((getByte(index) << 8) | (getByte(index + 1) & 0xFF));
+	}
+	
+	public int getInt(int index)
+	{
+		return (getByte(index) << 24) | ((getByte(index + 1) & 0xFF) << 16) | ((getByte(index + 2) & 0xFF) << 8)
+			   | (getByte(index + 3) & 0xFF);
+	}
+	
+	public long getLong(int index)
+	{
+		return ((long)getInt(index) << 32) | (getInt(index + 4) & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * Finds the first occurrence of a byte within a range of this indexable
+	 * @param value
+	 * @param from first index to check
+	 * @param to index to stop before
+	 * @return the index of the byte, or -1 if it wasn't found
+	 */
+	public int indexOf(byte value, int from, int to)
+	{
+		for (int index = from; index < to; index++)
+		{
+			if (getByte(index) == value)
+				return index;
+		}
+		return -1;
+	}
+	
+	@Override
+	public Byte get(int index)
+	{
+		if (index >= start() && index < size())
+			return getByte(index);
+		else
+			return null;
+	}
+	
+	@Override
+	public ByteIndexer iterator()
+	{
+		return new ByteIndexer(this, start());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,282 @@
+package jogUtil.indexable;
+
+import jogUtil.*;
+
+/**
+ * Indexer for a ByteIndexable that can read whole primitives without boxing
+ * <p>
+ *     The primitive read methods read straight from the underlying indexable when no filters are active, and fall back
+ *     to reading one filtered byte at a time otherwise.  All multi-byte values are read big-endian.<br>
+ *     Check that enough data is available with hasBytes() before reading, reading past the end of the indexable
+ *     throws an IndexOutOfBoundsException.
+ * </p>
+ */
+public class ByteIndexer extends Indexer<Byte>
+{
+	final ByteIndexable bytes;
+	
+	public ByteIndexer(ByteIndexable indexable)
+	{
+		this(indexable, 0);
+	}
+	
+	public ByteIndexer(ByteIndexable indexable, int index)
+	{
+		super(indexable, index);
+		bytes = indexable;
+	}
+	
+	@Override
+	public ByteIndexable indexable()
+	{
+		return bytes;
+	}
+	
+	/**
+	 * Checks if the given number of bytes can be read with the primitive read methods.
+	 * <p>
+	 *     If the underlying indexable is incomplete this thread will yield until either enough bytes are available or
+	 *     the indexable is completed.<br>
+	 *     Always returns false while filters are active, since the number of bytes that pass them can't be known
+	 *     without reading them.
+	 * </p>
+	 * @param count
+	 * @return
+	 */
+	public boolean hasBytes(int count)
+	{
+		if (filtered())
+			return false;
+		while (bytes.size() - index < count && !bytes.complete())
+			bytes.waitForSize(index + count);
+		return bytes.size() - index >= count;
+	}
+	
+	private void checkAvailable(int count)
+	{
+		if (!hasBytes(count))
+			throw new IndexOutOfBoundsException("Needed " + count + " bytes, but only " + (bytes.size() - index) + " are available.");
+	}
+	
+	public byte readByte()
+	{
+		if (filtered())
+		{
+			if (atEnd())
+				throw new IndexOutOfBoundsException("Needed 1 byte, but none are available.");
+			return next();
+		}
+		checkAvailable(1);
+		byte value = bytes.getByte(index++);
+		advanced();
+		return value;
+	}
+	
+	public short readShort()
+	{
+		if (filtered())
+			return (short)((readByte() << 8) | (readByte() & 0xFF));
+		checkAvailable(2);
+		short value = bytes.getShort(index);
+		index += 2;
+		advanced();
+		return value;
+	}
+	
+	public int readInt()
+	{
+		if (filtered())
+			return (readShort() << 16) | (readShort() & 0xFFFF);
+		checkAvailable(4);
+		int value = bytes.getInt(index);
+		index += 4;
+		advanced();
+		return value;
+	}
+	
+	public long readLong()
+	{
+		if (filtered())
+			return ((long)readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+		checkAvailable(8);
+		long value = bytes.getLong(index);
+		index += 8;
+		advanced();
+		return value;
+	}
+	
+	public float readFloat()
+	{
+		return Float.intBitsToFloat(readInt());
+	}
+	
+	public double readDouble()
+	{
+		return Double.longBitsToDouble(readLong());
+	}
+	
+	/**
+	 * Reads the given number of bytes into a new array.
+	 * @param count
+	 * @return
+	 */
+	public byte[] readBytes(int count)
+	{
+		byte[] data = new byte[count];
+		readBytes(data, 0, count);
+		return data;
+	}
+	
+	/**
+	 * Reads bytes into part of an existing array.
+	 * @param destination
+	 * @param offset where in the destination to start writing
+	 * @param length number of bytes to read
+	 */
+	public void readBytes(byte[] destination, int offset, int length)
+	{
+		if (filtered())
+		{
+			for (int position = 0; position < length; position++)
+				destination[offset + position] = readByte();
+		}
+		else
+		{
+			checkAvailable(length);
+			bytes.getBytes(index, destination, offset, length);
+			index += length;
+			advanced();
+		}
+	}
+	
+	/**
+	 * Reads as many bytes as are available, up to the given length.
+	 * <p>
+	 *     If no bytes are available and the underlying indexable is incomplete this thread will yield until either at
+	 *     least one is, or the indexable is completed.  Unlike readBytes() this never waits for the whole length to be
+	 *     available, so it can be used to stream through an indexable as its data arrives.<br>
+	 *     While filters are active bytes are read one at a time until the length is reached or the end is.
+	 * </p>
+	 * @param destination
+	 * @param offset where in the destination to start writing
+	 * @param length maximum number of bytes to read
+	 * @return the number of bytes read, or -1 if the end was reached before any could be.
+	 */
+	public int readAvailable(byte[] destination, int offset, int length)
+	{
+		if (length == 0)
+			return 0;
+		if (filtered())
+		{
+			int count = 0;
+			while (count < length && !atEnd())
+				destination[offset + count++] = next();
+			return count == 0 ? -1 : count;
+		}
+		while (bytes.size() <= index && !bytes.complete())
+			bytes.waitForSize(index + 1);
+		int count = Math.min(length, bytes.size() - index);
+		if (count <= 0)
+			return -1;
+		bytes.getBytes(index, destination, offset, count);
+		index += count;
+		advanced();
+		return count;
+	}
+	
+	/**
+	 * Skips over multiple bytes.
+	 * <p>
+	 *     Without filters to apply this just moves the position, without reading the bytes being skipped.
+	 * </p>
+	 * @param count number of bytes to skip.
+	 * @param applyFilter whether filters should be applied.
+	 */
+	@Override
+	public void skip(int count, boolean applyFilter)
+	{
+		if (applyFilter && filtered())
+		{
+			super.skip(count, true);
+			return;
+		}
+		while (bytes.size() - index < count && !bytes.complete())
+			bytes.waitForSize(index + count);
+		index += count;
+		advanced();
+	}
+	
+	/**
+	 * Finds how far ahead of the current position the given byte next appears.
+	 * <p>
+	 *     If the underlying indexable is incomplete this thread will yield until either the byte is found or the
+	 *     indexable is completed.  Filters are not applied.
+	 * </p>
+	 * @param value
+	 * @return the distance to the byte, or -1 if the end was reached without finding it.
+	 */
+	public int indexOf(byte value)
+	{
+		int from = index;
+		while (true)
+		{
+			int size = bytes.size();
+			int found = bytes.indexOf(value, from, size);
+			if (found != -1)
+				return found - index;
+			if (bytes.complete() && size == bytes.size())
+				return -1;
+			from = size;
+			bytes.waitForSize(size + 1);
+		}
+	}
+	
+	/**
+	 * Reads bytes into a new array until the given byte is reached
+	 * <p>
+	 *     The byte it stops at is not read.  If the underlying indexable is incomplete this thread will yield until
+	 *     either the byte is found or the indexable is completed.
+	 * </p>
+	 * @param value
+	 * @return the bytes read, which is every remaining byte if the given one wasn't found.
+	 */
+	public byte[] readUntil(byte value)
+	{
+		if (filtered())
+		{
+			ByteArrayBuilder builder = new ByteArrayBuilder();
+			while (!atEnd() && get() != value)
+				builder.add(next());
+			return builder.toPrimitiveArray();
+		}
+		int length = indexOf(value);
+		return readBytes(length == -1 ? bytes.size() - index : length);
+	}
+	
+	/**
+	 * Reads up to the given number of bytes into part of an existing array, stopping before the given byte
+	 * <p>
+	 *     The byte it stops at is not read.  If the underlying indexable is incomplete this thread will yield until
+	 *     either the byte is found, the length is reached, or the indexable is completed.
+	 * </p>
+	 * @param value
+	 * @param destination
+	 * @param offset where in the destination to start writing
+	 * @param length maximum number of bytes to read
+	 * @return the number of bytes read.
+	 */
+	public int readUntil(byte value, byte[] destination, int offset, int length)
+	{
+		if (filtered())
+		{
+			int count = 0;
+			while (count < length && !atEnd() && get() != value)
+				destination[offset + count++] = next();
+			return count;
+		}
+		int found = indexOf(value);
+		int count = Math.min(length, found == -1 ? bytes.size() - index : found);
+		readBytes(destination, offset, count);
+		return count;
+	}
+}
\ No newline at end of file
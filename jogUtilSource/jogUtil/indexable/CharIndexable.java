@@ -0,0 +1,116 @@
+package jogUtil.indexable;
+
+/**
+ * An Indexable of characters that can also be read without boxing each value
+ * <p>
+ *     Implementations only need to provide getChar(), but should override the other accessors when the underlying
+ *     storage can provide them more efficiently.
+ * </p>
+ */
+public abstract class CharIndexable extends Indexable<Character>
+{
+	protected CharIndexable()
+	{
+	
+	}
+	
+	/**
+	 * @param capacity
+	 * @see Indexable#Indexable(int)
+	 */
+	protected CharIndexable(int capacity)
+	{
+		super(capacity);
+	}
+	
+	/**
+	 * Gets the character at the given index without boxing it
+	 * <p>
+	 *     The index must be less than the current size.
+	 * </p>
+	 * @param index
+	 * @return
+	 */
+	public abstract char getChar(int index);
+	
+	/**
+	 * Copies a range of characters into the given array
+	 * @param index index of the first character to copy
+	 * @param destination
+	 * @param offset where in the destination to start copying to
+	 * @param length number of characters to copy
+	 */
+	public void getChars(int index, char[] destination, int offset, int length)
+	{
+		for (int position = 0; position < length; position++)
+			destination[offset + position] = getChar(index + position);
+	}
+	
+	/**
+	 * Finds the first occurrence of a character within a range of this indexable
+	 * @param value
+	 * @param from first index to check
+	 * @param to index to stop before
+	 * @return the index of the character, or -1 if it wasn't found
+	 */
+	public int indexOf(char value, int from, int to)
+	{
+		for (int index = from; index < to; index++)
+		{
+			if (getChar(index) == value)
+				return index;
+		}
+		return -1;
+	}
+	
+	/**
+	 * Finds the first character within a range of this indexable that's in the given set
+	 * @param characters
+	 * @param from first index to check
+	 * @param to index to stop before
+	 * @return the index of the character, or -1 if none of the characters in the range are in the set
+	 */
+	public int indexOf(CharacterSet characters, int from, int to)
+	{
+		for (int index = from; index < to; index++)
+		{
+			if (characters.contains(getChar(index)))
+				return index;
+		}
+		return -1;
+	}
+	
+	/**
+	 * Creates a string from a range of characters
+	 * @param index index of the first character in the string
+	 * @param length number of characters in the string
+	 * @return
+	 */
+	public String getString(int index, int length)
+	{
+		char[] characters = new char[length];
+		getChars(index, characters, 0, length);
+		return new String(characters);
+	}
+	
+	@Override
+	public Character get(int index)
+	{
+		if (index >= start() && index < size())
+			return getChar(index);
+		else
+			return null;
+	}
+	
+	@Override
+	public CharIndexer iterator()
+	{
+		return new CharIndexer(this, start());
+	}
+	
+	@Override
+	public boolean contains(Object o)
+	{
+		return o instanceof Character value && indexOf(value, start(), size()) != -1;
+	}
+}
\ No newline at end of file
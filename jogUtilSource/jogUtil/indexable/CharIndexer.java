@@ -0,0 +1,278 @@
+package jogUtil.indexable;
+
+/**
+ * Indexer for a CharIndexable that can read characters without boxing
+ * <p>
+ *     The primitive read methods read straight from the underlying indexable when no filters are active, and fall back
+ *     to reading one filtered character at a time otherwise.<br>
+ *     Check that enough data is available with hasChars() before reading, reading past the end of the indexable
+ *     throws an IndexOutOfBoundsException.
+ * </p>
+ */
+public class CharIndexer extends Indexer<Character>
+{
+	final CharIndexable characters;
+	
+	public CharIndexer(CharIndexable indexable)
+	{
+		this(indexable, 0);
+	}
+	
+	public CharIndexer(CharIndexable indexable, int index)
+	{
+		super(indexable, index);
+		characters = indexable;
+	}
+	
+	@Override
+	public CharIndexable indexable()
+	{
+		return characters;
+	}
+	
+	/**
+	 * Checks if the given number of characters can be read with the primitive read methods.
+	 * <p>
+	 *     If the underlying indexable is incomplete this thread will yield until either enough characters are
+	 *     available or the indexable is completed.<br>
+	 *     Always returns false while filters are active, since the number of characters that pass them can't be known
+	 *     without reading them.
+	 * </p>
+	 * @param count
+	 * @return
+	 */
+	public boolean hasChars(int count)
+	{
+		if (filtered())
+			return false;
+		while (characters.size() - index < count && !characters.complete())
+			characters.waitForSize(index + count);
+		return characters.size() - index >= count;
+	}
+	
+	/**
+	 * Reads the current character and advances past it.
+	 * @return
+	 */
+	public char readChar()
+	{
+		if (filtered())
+		{
+			if (atEnd())
+				throw new IndexOutOfBoundsException("Needed 1 character, but none are available.");
+			return next();
+		}
+		if (!hasChars(1))
+			throw new IndexOutOfBoundsException("Needed 1 character, but none are available.");
+		char value = characters.getChar(index++);
+		advanced();
+		return value;
+	}
+	
+	/**
+	 * Reads the current character without advancing.
+	 * @return
+	 */
+	public char peekChar()
+	{
+		if (filtered())
+		{
+			if (atEnd())
+				throw new IndexOutOfBoundsException("Needed 1 character, but none are available.");
+			return get();
+		}
+		if (!hasChars(1))
+			throw new IndexOutOfBoundsException("Needed 1 character, but none are available.");
+		return characters.getChar(index);
+	}
+	
+	/**
+	 * Reads characters into part of an existing array.
+	 * @param destination
+	 * @param offset where in the destination to start writing
+	 * @param length number of characters to read
+	 */
+	public void readChars(char[] destination, int offset, int length)
+	{
+		if (filtered())
+		{
+			for (int position = 0; position < length; position++)
+				destination[offset + position] = readChar();
+		}
+		else
+		{
+			if (!hasChars(length))
+				throw new IndexOutOfBoundsException("Needed " + length + " characters, but only "
+													+ (characters.size() - index) + " are available.");
+			characters.getChars(index, destination, offset, length);
+			index += length;
+			advanced();
+		}
+	}
+	
+	/**
+	 * Reads up to the given number of characters into part of an existing array, stopping before the given character
+	 * <p>
+	 *     The character it stops at is not read.  If the underlying indexable is incomplete this thread will yield
+	 *     until either the character is found, the length is reached, or the indexable is completed.
+	 * </p>
+	 * @param value
+	 * @param destination
+	 * @param offset where in the destination to start writing
+	 * @param length maximum number of characters to read
+	 * @return the number of characters read.
+	 */
+	public int readUntil(char value, char[] destination, int offset, int length)
+	{
+		if (filtered())
+		{
+			int count = 0;
+			while (count < length && !atEnd() && get() != value)
+				destination[offset + count++] = next();
+			return count;
+		}
+		int count = Math.min(length, span(indexOf(value)));
+		readChars(destination, offset, count);
+		return count;
+	}
+	
+	/**
+	 * Reads characters into a string until the given character is reached
+	 * <p>
+	 *     The character it stops at is not read.  If the underlying indexable is incomplete this thread will yield
+	 *     until either the character is found or the indexable is completed.
+	 * </p>
+	 * @param value
+	 * @return the characters read, which is every remaining character if the given one wasn't found.
+	 */
+	public String readUntil(char value)
+	{
+		if (filtered())
+		{
+			StringBuilder builder = new StringBuilder();
+			while (!atEnd() && get() != value)
+				builder.append(next());
+			return builder.toString();
+		}
+		return readString(span(indexOf(value)));
+	}
+	
+	/**
+	 * Reads characters into a string until one in the given set is reached
+	 * <p>
+	 *     The character it stops at is not read.  If the underlying indexable is incomplete this thread will yield
+	 *     until either a character in the set is found or the indexable is completed.
+	 * </p>
+	 * @param characters
+	 * @return the characters read, which is every remaining character if none in the set were found.
+	 */
+	public String readUntil(CharacterSet characters)
+	{
+		if (filtered())
+		{
+			StringBuilder builder = new StringBuilder();
+			while (!atEnd() && !characters.contains(get()))
+				builder.append(next());
+			return builder.toString();
+		}
+		return readString(span(indexOf(characters)));
+	}
+	
+	/**
+	 * Reads characters into a string for as long as they're in the given set.
+	 * @param characters
+	 * @return
+	 * @see #readUntil(CharacterSet)
+	 */
+	public String readWhile(CharacterSet characters)
+	{
+		return readUntil(characters.inverse());
+	}
+	
+	/**
+	 * Reads up to the given number of characters into a string
+	 * <p>
+	 *     If the underlying indexable is incomplete this thread will yield until either enough characters are
+	 *     available or the indexable is completed, so passing Integer.MAX_VALUE reads everything that's left.
+	 * </p>
+	 * @param count
+	 * @return the characters read, which will be fewer than the count if the end was reached.
+	 */
+	public String readString(int count)
+	{
+		if (filtered())
+		{
+			StringBuilder builder = new StringBuilder();
+			while (builder.length() < count && !atEnd())
+				builder.append(next());
+			return builder.toString();
+		}
+		while (characters.size() - index < count && !characters.complete())
+			characters.waitForSize((int)Math.min((long)index + count, Integer.MAX_VALUE));
+		count = Math.min(count, characters.size() - index);
+		String string = characters.getString(index, count);
+		index += count;
+		advanced();
+		return string;
+	}
+	
+	/**
+	 * Finds how far ahead of the current position the given character next appears.
+	 * <p>
+	 *     If the underlying indexable is incomplete this thread will yield until either the character is found or the
+	 *     indexable is completed.  Filters are not applied.
+	 * </p>
+	 * @param value
+	 * @return the distance to the character, or -1 if the end was reached without finding it.
+	 */
+	public int indexOf(char value)
+	{
+		int from = index;
+		while (true)
+		{
+			int size = characters.size();
+			int found = characters.indexOf(value, from, size);
+			if (found != -1)
+				return found - index;
+			if (characters.complete() && size == characters.size())
+				return -1;
+			from = size;
+			characters.waitForSize(size + 1);
+		}
+	}
+	
+	/**
+	 * Finds how far ahead of the current position a character in the given set next appears.
+	 * <p>
+	 *     If the underlying indexable is incomplete this thread will yield until either a character in the set is
+	 *     found or the indexable is completed.  Filters are not applied.
+	 * </p>
+	 * @param characters
+	 * @return the distance to the character, or -1 if the end was reached without finding one.
+	 */
+	public int indexOf(CharacterSet characters)
+	{
+		int from = index;
+		while (true)
+		{
+			int size = this.characters.size();
+			int found = this.characters.indexOf(characters, from, size);
+			if (found != -1)
+				return found - index;
+			if (this.characters.complete() && size == this.characters.size())
+				return -1;
+			from = size;
+			this.characters.waitForSize(size + 1);
+		}
+	}
+	
+	/**
+	 * Turns the result of indexOf() into the number of characters before the match
+	 * @param distance
+	 * @return
+	 */
+	private int span(int distance)
+	{
+		return distance == -1 ? characters.size() - index : distance;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,109 @@
+package jogUtil.indexable;
+
+import java.util.*;
+
+/**
+ * An immutable set of characters that can be checked without boxing or scanning
+ * <p>
+ *     Characters below 256 are kept in a bitset, and any others in a sorted array that's binary searched.  A set can
+ *     also be inverted, containing every character except the ones it was created with.<br>
+ *     As a filter it lets through the characters it contains.
+ * </p>
+ */
+public final class CharacterSet implements Indexer.Filter<Character>
+{
+	private final long[] low;
+	private final char[] high;
+	private final boolean inverted;
+	
+	private CharacterSet(long[] low, char[] high, boolean inverted)
+	{
+		this.low = low;
+		this.high = high;
+		this.inverted = inverted;
+	}
+	
+	public static CharacterSet of(char... characters)
+	{
+		long[] low = new long[4];
+		char[] high = new char[characters.length];
+		int highCount = 0;
+		for (char character : characters)
+		{
+			if (character < 256)
+				low[character >> 6] |= 1L << character;
+			else
+				high[highCount++] = character;
+		}
+		high = Arrays.copyOf(high, highCount);
+		Arrays.sort(high);
+		return new CharacterSet(low, high, false);
+	}
+	
+	public static CharacterSet from(Character... characters)
+	{
+		char[] primitives = new char[characters.length];
+		for (int index = 0; index < characters.length; index++)
+			primitives[index] = characters[index];
+		return of(primitives);
+	}
+	
+	/**
+	 * Creates a set of all the characters in a range
+	 * @param from first character in the range
+	 * @param to last character in the range
+	 * @return
+	 */
+	public static CharacterSet range(char from, char to)
+	{
+		char[] characters = new char[Math.max(0, to - from + 1)];
+		for (int index = 0; index < characters.length; index++)
+			characters[index] = (char)(from + index);
+		return of(characters);
+	}
+	
+	/**
+	 * Creates a set of the values in a collection, if they're all characters
+	 * @param values
+	 * @return the set, or null if the collection is empty or any of the values isn't a Character
+	 */
+	public static CharacterSet from(Collection<?> values)
+	{
+		if (values.isEmpty())
+			return null;
+		char[] characters = new char[values.size()];
+		int index = 0;
+		for (Object value : values)
+		{
+			if (!(value instanceof Character character))
+				return null;
+			characters[index++] = character;
+		}
+		return of(characters);
+	}
+	
+	public boolean contains(char character)
+	{
+		boolean found;
+		if (character < 256)
+			found = (low[character >> 6] & (1L << character)) != 0;
+		else
+			found = high.length != 0 && Arrays.binarySearch(high, character) >= 0;
+		return found != inverted;
+	}
+	
+	/**
+	 * Creates a set of every character that isn't in this one
+	 * @return
+	 */
+	public CharacterSet inverse()
+	{
+		return new CharacterSet(low, high, !inverted);
+	}
+	
+	@Override
+	public boolean filter(Character value)
+	{
+		return value != null && contains(value);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package jogUtil.indexable;
+
+import java.lang.invoke.*;
+
+/**
+ * How an Indexable backed by a stream or reader gets its data
+ */
+public enum FillMode
+{
+	/**
+	 * Data is read on demand, in whichever thread is waiting for it
+	 * <p>
+	 *     No thread is created, so this is the cheapest mode for sources that can be read synchronously, such as
+	 *     files.  Reading blocks the thread that needs the data until the source provides some.
+	 * </p>
+	 */
+	PULL,
+	/**
+	 * Data is read ahead by a dedicated platform thread
+	 */
+	THREAD,
+	/**
+	 * Data is read ahead by a virtual thread
+	 * <p>
+	 *     Suited to asynchronous sources like sockets, where many may be open at once.  If the runtime doesn't
+	 *     support virtual threads a platform thread is used instead.
+	 * </p>
+	 */
+	VIRTUAL_THREAD;
+	
+	private static final MethodHandle virtualBuilder;
+	private static final MethodHandle unstarted;
+	
+	static
+	{
+		MethodHandle builder = null;
+		MethodHandle create = null;
+		try
+		{
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			builder = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(
+					Class.forName("java.lang.Thread$Builder$OfVirtual")));
+			create = lookup.findVirtual(builderClass, "unstarted", MethodType.methodType(Thread.class, Runnable.class));
+		}
+		catch (ReflectiveOperationException ignored)
+		{
+		
+		}
+		virtualBuilder = builder;
+		unstarted = create;
+	}
+	
+	/**
+	 * Creates the thread that will read ahead for this mode
+	 * @param runnable
+	 * @return the unstarted thread, or null for PULL
+	 */
+	Thread newThread(Runnable runnable)
+	{
+		if (this == PULL)
+			return null;
+		if (this == VIRTUAL_THREAD && virtualBuilder != null)
+		{
+			try
+			{
+				return (Thread)unstarted.invoke(virtualBuilder.invoke(), runnable);
+			}
+			catch (Throwable ignored)
+			{
+			
+			}
+		}
+		return new Thread(runnable);
+	}
+}
\ No newline at end of file
@@ -1,9 +1,40 @@
 package jogUtil.indexable;
 
+import java.lang.ref.*;
+import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+import java.util.function.*;
 
 public abstract class Indexable<Type> implements Collection<Type>
 {
+	/**
+	 * How much unconsumed data producers may add before they have to wait, or Integer.MAX_VALUE if there's no limit
+	 */
+	private final int capacity;
+	
+	protected Indexable()
+	{
+		capacity = Integer.MAX_VALUE;
+	}
+	
+	/**
+	 * Creates an indexable that holds its producers back once it has the given amount of unconsumed data
+	 * <p>
+	 *     Data is unconsumed until an indexer has moved past it.
+	 * </p>
+	 * @param capacity
+	 * @see #waitForSpace()
+	 */
+	protected Indexable(int capacity)
+	{
+		if (capacity <= 0)
+			throw new RuntimeException("Capacity must be positive, got " + capacity + ".");
+		this.capacity = capacity;
+	}
+	
 	/**
 	 * Gets the value at the given index
 	 * @param index
@@ -29,14 +60,114 @@ public abstract class Indexable<Type> implements Collection<Type>
 	public abstract boolean complete();
 	
 	/**
-	 * This class is used for synchronization when threads wait for data to be added.
+	 * The indexers of a windowed indexable, which decide how much of it has to be kept
 	 */
-	private static class WaitingPoint
+	private final ArrayList<WeakReference<Indexer<Type>>> trackedIndexers = new ArrayList<>();
+	
+	/**
+	 * Checks if this indexable only keeps the data its indexers can still reach
+	 * <p>
+	 *     A windowed indexable releases data once no live indexer can rewind to it, and indexers can't be moved back
+	 *     to released data.  The default implementation returns false.
+	 * </p>
+	 * @return
+	 * @see Indexer#mark()
+	 * @see Indexer#checkpoint()
+	 */
+	public boolean windowed()
 	{
-		boolean hasWaiting = false;
+		return false;
 	}
 	
-	private final WaitingPoint waitingPoint = new WaitingPoint();
+	/**
+	 * Gives the index of the first value that hasn't been released
+	 * <p>
+	 *     Always 0 unless this indexable is windowed.
+	 * </p>
+	 * @return
+	 */
+	public int start()
+	{
+		return 0;
+	}
+	
+	/**
+	 * Starts keeping track of an indexer, if this indexable is windowed
+	 * <p>
+	 *     Called by every indexer when it's created.  Indexers are only weakly referenced, once one is garbage
+	 *     collected it no longer holds back any data.
+	 * </p>
+	 * @param indexer
+	 */
+	void track(Indexer<Type> indexer)
+	{
+		if (!windowed())
+			return;
+		synchronized(trackedIndexers)
+		{
+			trackedIndexers.add(new WeakReference<>(indexer));
+		}
+	}
+	
+	/**
+	 * Finds the earliest position that any live indexer can still move back to
+	 * <p>
+	 *     Data before this position can be released.  If there are no live indexers nothing can be released, since an
+	 *     indexer created later will start from the beginning of whatever is left, so the start is returned.
+	 * </p>
+	 * @return
+	 * @see #start()
+	 */
+	protected final int retainedPosition()
+	{
+		synchronized(trackedIndexers)
+		{
+			int lowest = Integer.MAX_VALUE;
+			for (Iterator<WeakReference<Indexer<Type>>> iterator = trackedIndexers.iterator(); iterator.hasNext();)
+			{
+				Indexer<Type> indexer = iterator.next().get();
+				if (indexer == null)
+					iterator.remove();
+				else
+					lowest = Math.min(lowest, indexer.retainedPosition());
+			}
+			return lowest == Integer.MAX_VALUE ? start() : lowest;
+		}
+	}
+	
+	/**
+	 * A thread waiting for this indexable to reach a certain size
+	 */
+	private static final class Waiter
+	{
+		final int size;
+		final Condition condition;
+		
+		Waiter(int size, Condition condition)
+		{
+			this.size = size;
+			this.condition = condition;
+		}
+	}
+	
+	private final ReentrantLock waitLock = new ReentrantLock();
+	private final ArrayList<Waiter> waiters = new ArrayList<>();
+	private final Condition spaceAvailable = waitLock.newCondition();
+	private int waitingProducers = 0;
+	/**
+	 * The furthest position any indexer has moved to, only kept up to date if this indexable is bounded
+	 */
+	private final AtomicInteger consumed = new AtomicInteger();
+	/**
+	 * How far the indexers have to move before a waiting producer would have room, or Integer.MAX_VALUE if no
+	 * producer is waiting
+	 */
+	private volatile int wakeAt = Integer.MAX_VALUE;
+	/**
+	 * The smallest size any thread is waiting for, so that wakeWaiters() can return without locking when no waiting
+	 * thread's size has been reached
+	 */
+	private volatile int lowestWaitingSize = Integer.MAX_VALUE;
 	
 	/**
 	 * Causes the current thread to yield until more data is available.
@@ -44,47 +175,380 @@ public abstract class Indexable<Type> implements Collection<Type>
 	 *     New data should be available once the thread resumes, but this can't be guaranteed.  While not required, it is
 	 *     recommended to verify that new data is available before trying to access it.<br>
 	 *     <br>
-	 *     If the indexable is already complete the thread will not yield and this method will return immediately.
+	 *     If the indexable is already complete the thread will not yield and this method will return immediately.  If
+	 *     it's filled on demand, more data is read in this thread instead of yielding.<br>
+	 *     Interrupting the thread does not stop it waiting, but its interrupt status is kept.
 	 * </p>
+	 * @see #fill()
+	 * @see #waitForSize(int)
+	 * @see #waitForData(long, TimeUnit)
 	 */
 	public final void waitForData()
 	{
-		synchronized(waitingPoint)
+		waitForSize(size() + 1);
+	}
+	
+	/**
+	 * Causes the current thread to yield until this indexable reaches the given size, or is completed.
+	 * <p>
+	 *     If it's filled on demand, more data is read in this thread instead of yielding, which might not be enough to
+	 *     reach the size.<br>
+	 *     Interrupting the thread does not stop it waiting, but its interrupt status is kept.
+	 * </p>
+	 * @param size
+	 */
+	public final void waitForSize(int size)
+	{
+		try
+		{
+			await(size, -1, false);
+		}
+		catch (InterruptedException impossible)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Causes the current thread to yield until more data is available, the timeout elapses, or the thread is
+	 * interrupted.
+	 * @param timeout
+	 * @param unit
+	 * @return whether more data is available or the indexable is complete.
+	 * @throws InterruptedException
+	 * @see #waitForSize(int, long, TimeUnit)
+	 */
+	public final boolean waitForData(long timeout, TimeUnit unit) throws InterruptedException
+	{
+		return waitForSize(size() + 1, timeout, unit);
+	}
+	
+	/**
+	 * Causes the current thread to yield until this indexable reaches the given size or is completed, the timeout
+	 * elapses, or the thread is interrupted.
+	 * <p>
+	 *     If it's filled on demand, data is read in this thread until the size is reached, and the timeout only applies
+	 *     between reads.
+	 * </p>
+	 * @param size
+	 * @param timeout
+	 * @param unit
+	 * @return whether the size was reached or the indexable is complete.
+	 * @throws InterruptedException
+	 */
+	public final boolean waitForSize(int size, long timeout, TimeUnit unit) throws InterruptedException
+	{
+		long start = System.nanoTime();
+		long nanos = unit.toNanos(timeout);
+		while (size() < size && !complete())
+		{
+			if (Thread.interrupted())
+				throw new InterruptedException();
+			long remaining = nanos - (System.nanoTime() - start);
+			if (remaining <= 0)
+				return false;
+			await(size, remaining, true);
+		}
+		return true;
+	}
+	
+	/**
+	 * Waits for this indexable to reach a size
+	 * @param size
+	 * @param nanos how long to wait, or -1 to wait indefinitely.
+	 * @param interruptible
+	 * @throws InterruptedException
+	 */
+	private void await(int size, long nanos, boolean interruptible) throws InterruptedException
+	{
+		if (size() >= size || complete() || fill())
+			return;
+		waitLock.lock();
+		try
 		{
-			if (!complete())
+			Waiter waiter = new Waiter(size, waitLock.newCondition());
+			waiters.add(waiter);
+			if (size < lowestWaitingSize)
+				lowestWaitingSize = size;
+			try
 			{
-				waitingPoint.hasWaiting = true;
-				//if the thread is awoken for any reason other than wakeWaiters() being called, we want to go back to waiting
-				while (waitingPoint.hasWaiting)
+				//the size is only checked after registering, so a wakeWaiters() call after this check can't be missed
+				while (size() < size && !complete())
 				{
-					try
+					if (nanos == -1)
 					{
-						waitingPoint.wait();
+						if (interruptible)
+							waiter.condition.await();
+						else
+							waiter.condition.awaitUninterruptibly();
 					}
-					catch (InterruptedException ignored)
+					else
 					{
-					
+						nanos = waiter.condition.awaitNanos(nanos);
+						if (nanos <= 0)
+							return;
 					}
 				}
 			}
+			finally
+			{
+				waiters.remove(waiter);
+				updateLowestWaitingSize();
+			}
 		}
+		finally
+		{
+			waitLock.unlock();
+		}
+	}
+	
+	private void updateLowestWaitingSize()
+	{
+		int lowest = Integer.MAX_VALUE;
+		for (Waiter waiter : waiters)
+			lowest = Math.min(lowest, waiter.size);
+		lowestWaitingSize = lowest;
+	}
+	
+	/**
+	 * Adds more data in the calling thread, for indexables that are filled on demand rather than by another thread.
+	 * <p>
+	 *     Called by waitForData() before it yields.  The default implementation does nothing and returns false.
+	 * </p>
+	 * @return whether this indexable is filled on demand, in which case waitForData() returns without yielding.
+	 * @see FillMode#PULL
+	 */
+	protected boolean fill()
+	{
+		return false;
 	}
 	
 	/**
-	 * Wakes all the threads that are currently waiting for new data to be added.
+	 * Wakes the threads waiting for the size this indexable has now reached, or all of them if it's complete.
 	 * <p>
-	 *     If this is called without adding new data first, it may result in undesirable behavior in the waiting threads
-	 *     if they are blindly assuming that new data will always be available after they have been awoken.  However this
-	 *     can not be avoided if you no longer intend to add more data and need to wake any threads that are still trying
-	 *     to wait for more.
+	 *     Should be called after adding new data, and after completing the indexable.  Threads waiting for a size that
+	 *     hasn't been reached yet are left waiting, and if no thread is waiting for the current size this returns
+	 *     without locking anything.  Once the indexable is complete any producers waiting for room are woken too.
 	 * </p>
 	 */
 	protected final void wakeWaiters()
 	{
-		synchronized(waitingPoint)
+		if (lowestWaitingSize > size() && !complete())
+			return;
+		waitLock.lock();
+		try
+		{
+			int size = size();
+			boolean complete = complete();
+			for (Waiter waiter : waiters)
+			{
+				if (complete || waiter.size <= size)
+					waiter.condition.signal();
+			}
+			if (complete && waitingProducers != 0)
+				spaceAvailable.signalAll();
+		}
+		finally
 		{
-			waitingPoint.hasWaiting = false;
-			waitingPoint.notifyAll();
+			waitLock.unlock();
+		}
+	}
+	
+	/**
+	 * Checks if this indexable holds its producers back once it has too much unconsumed data
+	 * @return
+	 * @see #capacity()
+	 */
+	public boolean bounded()
+	{
+		return capacity != Integer.MAX_VALUE;
+	}
+	
+	/**
+	 * Gives how much unconsumed data producers may add before they have to wait
+	 * @return the capacity, or Integer.MAX_VALUE if this indexable isn't bounded.
+	 */
+	public int capacity()
+	{
+		return capacity;
+	}
+	
+	/**
+	 * Gives how much data hasn't been consumed yet
+	 * <p>
+	 *     Data is consumed once any indexer has moved past it, so an indexer that stays behind, or a copy kept to move
+	 *     back to, doesn't hold producers back.  Marks and checkpoints only decide what a windowed indexable keeps,
+	 *     not how much room there is.  Only bounded indexables keep track of this, for anything else this is the same
+	 *     as the size.
+	 * </p>
+	 * @return
+	 */
+	public int unconsumed()
+	{
+		int size = size();
+		return size - Math.min(Math.max(consumed.get(), start()), size);
+	}
+	
+	/**
+	 * Records that an indexer has moved to the given position, and wakes any producers that now have room
+	 * <p>
+	 *     Called by the indexers of a bounded indexable whenever they move forward.
+	 * </p>
+	 * @param position
+	 */
+	final void consumeTo(int position)
+	{
+		for (int current = consumed.get(); position > current; current = consumed.get())
+		{
+			if (consumed.compareAndSet(current, position))
+				break;
+		}
+		if (position >= wakeAt)
+			wakeProducers();
+	}
+	
+	/**
+	 * Wakes every producer waiting for room, so that they check again
+	 * <p>
+	 *     Producers waiting with a stop condition should be woken once it's met.
+	 * </p>
+	 * @see #waitForSpace(BooleanSupplier)
+	 */
+	protected final void wakeProducers()
+	{
+		waitLock.lock();
+		try
+		{
+			wakeAt = Integer.MAX_VALUE;
+			spaceAvailable.signalAll();
+		}
+		finally
+		{
+			waitLock.unlock();
+		}
+	}
+	
+	/**
+	 * Checks if this indexable is bounded and has reached its capacity
+	 * <p>
+	 *     Producers can use this to find out whether adding data would make them wait, without waiting.
+	 * </p>
+	 * @return
+	 */
+	public boolean full()
+	{
+		return bounded() && unconsumed() >= capacity;
+	}
+	
+	/**
+	 * Causes the current thread to yield until this indexable has room for more data, or is completed.
+	 * <p>
+	 *     Meant for the threads producing data.  Returns immediately unless this indexable is full.  A producer is
+	 *     woken as soon as an indexer has moved far enough for there to be room.<br>
+	 *     Interrupting the thread does not stop it waiting, but its interrupt status is kept.
+	 * </p>
+	 * @see #full()
+	 * @see #waitForSpace(long, TimeUnit)
+	 */
+	public final void waitForSpace()
+	{
+		try
+		{
+			awaitSpace(-1, false, () -> false);
+		}
+		catch (InterruptedException impossible)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Causes the current thread to yield until this indexable has room for more data or is completed, the timeout
+	 * elapses, or the thread is interrupted.
+	 * @param timeout
+	 * @param unit
+	 * @return whether there's room for more data or the indexable is complete.
+	 * @throws InterruptedException
+	 * @see #waitForSpace()
+	 */
+	public final boolean waitForSpace(long timeout, TimeUnit unit) throws InterruptedException
+	{
+		return awaitSpace(Math.max(unit.toNanos(timeout), 0), true, () -> false);
+	}
+	
+	/**
+	 * Causes the current thread to yield until this indexable has room for more data, is completed, or the producer
+	 * is stopped.
+	 * <p>
+	 *     The stop condition is checked first, even if there's room, and again whenever the thread is woken, so
+	 *     wakeProducers() has to be called once it's met.  Interrupting the thread does not stop it waiting, but its interrupt status is kept.
+	 * </p>
+	 * @param stopped
+	 * @return false if the producer was stopped.
+	 * @see #wakeProducers()
+	 */
+	protected final boolean waitForSpace(BooleanSupplier stopped)
+	{
+		try
+		{
+			return awaitSpace(-1, false, stopped);
+		}
+		catch (InterruptedException impossible)
+		{
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+	
+	/**
+	 * Waits for this indexable to have room for more data
+	 * <p>
+	 *     Before each wait the position the indexers have to reach is published, and the indexer that reaches it
+	 *     wakes the producers.  Since it's published before checking for room, an indexer moving past it in the
+	 *     meantime can't be missed.
+	 * </p>
+	 * @param nanos how long to wait, or -1 to wait indefinitely.
+	 * @param interruptible
+	 * @param stopped
+	 * @return whether there's room for more data or the indexable is complete.
+	 * @throws InterruptedException
+	 */
+	private boolean awaitSpace(long nanos, boolean interruptible, BooleanSupplier stopped) throws InterruptedException
+	{
+		if (stopped.getAsBoolean())
+			return false;
+		if (!full() || complete())
+			return true;
+		waitLock.lock();
+		waitingProducers++;
+		try
+		{
+			while (!stopped.getAsBoolean())
+			{
+				wakeAt = size() - capacity + 1;
+				if (!full() || complete())
+					return true;
+				if (nanos == -1)
+				{
+					if (interruptible)
+						spaceAvailable.await();
+					else
+						spaceAvailable.awaitUninterruptibly();
+				}
+				else
+				{
+					if (nanos <= 0)
+						return false;
+					nanos = spaceAvailable.awaitNanos(nanos);
+				}
+			}
+			return false;
+		}
+		finally
+		{
+			if (--waitingProducers == 0)
+				wakeAt = Integer.MAX_VALUE;
+			waitLock.unlock();
 		}
 	}
 	
@@ -97,27 +561,129 @@ public abstract class Indexable<Type> implements Collection<Type>
 	@Override
 	public Indexer<Type> iterator()
 	{
-		return new Indexer<>(this);
+		return new Indexer<>(this, start());
 	}
 	
+	/**
+	 * Creates a spliterator over the values in this indexable
+	 * <p>
+	 *     If the indexable is complete the spliterator is sized, and splits its range of indices in half, so that
+	 *     parallelStream() can spread the values across threads.  Otherwise the values are read in order with an
+	 *     indexer, waiting for them as needed.
+	 * </p>
+	 * @return
+	 */
 	@Override
-	public Object[] toArray()
+	public Spliterator<Type> spliterator()
+	{
+		if (complete())
+			return new RangeSpliterator<>(this, start(), size());
+		return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED);
+	}
+	
+	/**
+	 * Splits a range of indices in a complete indexable
+	 */
+	private static final class RangeSpliterator<Type> implements Spliterator<Type>
 	{
-		Object[] values = new Object[size()];
-		for (int index = 0; index < size(); index++)
+		final Indexable<Type> indexable;
+		int index;
+		final int end;
+		
+		RangeSpliterator(Indexable<Type> indexable, int index, int end)
 		{
-			values[index] = get(index);
+			this.indexable = indexable;
+			this.index = index;
+			this.end = end;
+		}
+		
+		@Override
+		public boolean tryAdvance(Consumer<? super Type> action)
+		{
+			if (index >= end)
+				return false;
+			action.accept(indexable.get(index++));
+			return true;
+		}
+		
+		@Override
+		public void forEachRemaining(Consumer<? super Type> action)
+		{
+			Indexable<Type> indexable = this.indexable;
+			for (int index = this.index; index < end; index++)
+				action.accept(indexable.get(index));
+			this.index = end;
+		}
+		
+		@Override
+		public Spliterator<Type> trySplit()
+		{
+			int middle = (index + end) >>> 1;
+			if (middle <= index)
+				return null;
+			RangeSpliterator<Type> prefix = new RangeSpliterator<>(indexable, index, middle);
+			index = middle;
+			return prefix;
+		}
+		
+		@Override
+		public long estimateSize()
+		{
+			return end - index;
+		}
+		
+		@Override
+		public int characteristics()
+		{
+			return ORDERED | SIZED | SUBSIZED;
 		}
-		return values;
 	}
 	
+	/**
+	 * Performs an action for each value in this indexable
+	 * <p>
+	 *     If the indexable is incomplete this thread will yield as needed, until it's completed.
+	 * </p>
+	 * @param action
+	 */
 	@Override
-	public <ArrayType> ArrayType[] toArray(ArrayType[] values)
+	public void forEach(Consumer<? super Type> action)
 	{
-		for (int index = 0; index < size(); index++)
+		if (!complete())
 		{
-			values[index] = (ArrayType)get(index);
+			for (Indexer<Type> indexer = iterator(); indexer.hasNext();)
+				action.accept(indexer.next());
+			return;
 		}
+		for (int index = start(), size = size(); index < size; index++)
+			action.accept(get(index));
+	}
+	
+	@Override
+	public Object[] toArray()
+	{
+		int start = start();
+		Object[] values = new Object[size() - start];
+		for (int index = 0; index < values.length; index++)
+			values[index] = get(start + index);
+		return values;
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public <ArrayType> ArrayType[] toArray(ArrayType[] values)
+	{
+		int start = start();
+		int size = size() - start;
+		//the new array has the same component type as the one given, so it's an array of ArrayType
+		if (values.length < size)
+			values = (ArrayType[])Array.newInstance(values.getClass().getComponentType(), size);
+		//the array checks each value as it's stored, like Collection.toArray() requires
+		Object[] array = values;
+		for (int index = 0; index < size; index++)
+			array[index] = get(start + index);
+		if (values.length > size)
+			values[size] = null;
 		return values;
 	}
 	
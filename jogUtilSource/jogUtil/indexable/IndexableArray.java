@@ -1,5 +1,8 @@
 package jogUtil.indexable;
 
+import java.util.*;
+import java.util.function.*;
+
 public class IndexableArray<Type> extends Indexable<Type>
 {
 	final Type[] values;
@@ -52,6 +55,38 @@ public class IndexableArray<Type> extends Indexable<Type>
 		return false;
 	}
 	
+	@Override
+	public Spliterator<Type> spliterator()
+	{
+		return Arrays.spliterator(values);
+	}
+	
+	@Override
+	public void forEach(Consumer<? super Type> action)
+	{
+		for (Type value : values)
+			action.accept(value);
+	}
+	
+	@Override
+	public Object[] toArray()
+	{
+		return Arrays.copyOf(values, values.length, Object[].class);
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public <ArrayType> ArrayType[] toArray(ArrayType[] array)
+	{
+		//the copy has the same class as the array given, so it's an array of ArrayType
+		if (array.length < values.length)
+			return (ArrayType[])Arrays.copyOf(values, values.length, array.getClass());
+		System.arraycopy(values, 0, array, 0, values.length);
+		if (array.length > values.length)
+			array[values.length] = null;
+		return array;
+	}
+	
 	@Override
 	public boolean add(Type type)
 	{
@@ -0,0 +1,111 @@
+package jogUtil.indexable;
+
+import java.nio.*;
+
+/**
+ * A complete ByteIndexable backed by a ByteBuffer
+ * <p>
+ *     Works with byte arrays, heap buffers, direct buffers and mapped buffers alike.  The bytes between the buffer's
+ *     position and limit are used, and they are never copied.
+ * </p>
+ */
+public class IndexableByteBuffer extends ByteIndexable
+{
+	final ByteBuffer buffer;
+	
+	public IndexableByteBuffer(ByteBuffer buffer)
+	{
+		this.buffer = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+	}
+	
+	public IndexableByteBuffer(byte[] data)
+	{
+		this(ByteBuffer.wrap(data));
+	}
+	
+	public IndexableByteBuffer(byte[] data, int offset, int length)
+	{
+		this(ByteBuffer.wrap(data, offset, length));
+	}
+	
+	/**
+	 * Provides a read-only view of the underlying buffer.
+	 * @return
+	 */
+	public ByteBuffer buffer()
+	{
+		return buffer.asReadOnlyBuffer();
+	}
+	
+	@Override
+	public byte getByte(int index)
+	{
+		return buffer.get(index);
+	}
+	
+	@Override
+	public void getBytes(int index, byte[] destination, int offset, int length)
+	{
+		buffer.get(index, destination, offset, length);
+	}
+	
+	@Override
+	public short getShort(int index)
+	{
+		return buffer.getShort(index);
+	}
+	
+	@Override
+	public int getInt(int index)
+	{
+		return buffer.getInt(index);
+	}
+	
+	@Override
+	public long getLong(int index)
+	{
+		return buffer.getLong(index);
+	}
+	
+	@Override
+	public void set(int index, Byte value)
+	{
+		buffer.put(index, value);
+	}
+	
+	@Override
+	public boolean complete()
+	{
+		return true;
+	}
+	
+	@Override
+	public int size()
+	{
+		return buffer.limit();
+	}
+	
+	@Override
+	public boolean contains(Object o)
+	{
+		return o instanceof Byte value && indexOf(value, 0, size()) != -1;
+	}
+	
+	@Override
+	public boolean add(Byte value)
+	{
+		return false;
+	}
+	
+	@Override
+	public boolean remove(Object o)
+	{
+		return false;
+	}
+	
+	@Override
+	public void clear()
+	{
+	
+	}
+}
\ No newline at end of file
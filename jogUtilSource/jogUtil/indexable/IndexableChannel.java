@@ -0,0 +1,484 @@
+package jogUtil.indexable;
+
+import jogUtil.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+/**
+ * A ByteIndexable that fills itself from an NIO channel, without a thread of its own
+ * <p>
+ *     The data is kept in direct buffers taken from a ByteBufferPool, which are given back to the pool as they're
+ *     released if it's windowed.<br>
+ *     How the channel is read depends on the kind of channel:<br>
+ *     - A blocking ReadableByteChannel is read on demand, in whichever thread is waiting for data.<br>
+ *     - A non-blocking ReadableByteChannel is read whenever receive() is called, usually by a selector thread once
+ *     the channel is readable.  Threads waiting for data are woken by it.<br>
+ *     - An AsynchronousByteChannel is read continuously by completion handlers, which run on the channel group's
+ *     threads.<br>
+ *     <br>
+ *     tryConsume() runs a consumer without ever waiting for data that hasn't arrived yet, so a single thread can
+ *     parse values from many channels as their data comes in.
+ * </p>
+ */
+public class IndexableChannel extends ByteIndexable implements AutoCloseable
+{
+	/**
+	 * Thrown while a consumer run by tryConsume() needs data that hasn't arrived yet
+	 * <p>
+	 *     This is an Error rather than an Exception so that consumers catching their own parsing exceptions don't
+	 *     mistake it for invalid data.
+	 * </p>
+	 */
+	private static final class NeedsData extends Error
+	{
+		private static final long serialVersionUID = 1L;
+		
+		NeedsData()
+		{
+			super(null, null, false, false);
+		}
+	}
+	
+	private static final NeedsData needsData = new NeedsData();
+	
+	final ByteBufferPool pool;
+	final int segmentShift;
+	final int segmentSize;
+	final int segmentMask;
+	final ReadableByteChannel channel;
+	final AsynchronousByteChannel asynchronousChannel;
+	final boolean windowed;
+	final Object fillLock = new Object();
+	final SegmentStore<ByteBuffer> store;
+	volatile int size = 0;
+	volatile boolean complete = false;
+	volatile boolean closed = false;
+	/**
+	 * The thread running tryConsume(), which is never made to wait for data
+	 */
+	volatile Thread consumingThread = null;
+	
+	/**
+	 * Creates an indexable that reads from a channel, using the shared buffer pool
+	 * @param channel
+	 */
+	public IndexableChannel(ReadableByteChannel channel)
+	{
+		this(channel, ByteBufferPool.shared, false);
+	}
+	
+	/**
+	 * Creates an indexable that reads from a channel
+	 * <p>
+	 *     A windowed indexable gives each buffer back to the pool once every live indexer has moved past it without a
+	 *     mark or a checkpoint before it.
+	 * </p>
+	 * @param channel
+	 * @param pool
+	 * @param windowed
+	 * @see Indexer#mark()
+	 * @see Indexer#checkpoint()
+	 */
+	public IndexableChannel(ReadableByteChannel channel, ByteBufferPool pool, boolean windowed)
+	{
+		this(channel, null, pool, windowed);
+	}
+	
+	/**
+	 * Creates an indexable that reads from an asynchronous channel, using the shared buffer pool
+	 * @param channel
+	 */
+	public IndexableChannel(AsynchronousByteChannel channel)
+	{
+		this(channel, ByteBufferPool.shared, false);
+	}
+	
+	/**
+	 * Creates an indexable that reads from an asynchronous channel
+	 * <p>
+	 *     Reading starts straight away, but a windowed indexable doesn't release anything until its first indexer has
+	 *     been created.
+	 * </p>
+	 * @param channel
+	 * @param pool
+	 * @param windowed
+	 * @see Indexer#mark()
+	 * @see Indexer#checkpoint()
+	 */
+	public IndexableChannel(AsynchronousByteChannel channel, ByteBufferPool pool, boolean windowed)
+	{
+		this(null, channel, pool, windowed);
+		synchronized(fillLock)
+		{
+			requestRead();
+		}
+	}
+	
+	private IndexableChannel(ReadableByteChannel channel, AsynchronousByteChannel asynchronousChannel,
+							 ByteBufferPool pool, boolean windowed)
+	{
+		this.channel = channel;
+		this.asynchronousChannel = asynchronousChannel;
+		this.pool = pool;
+		this.windowed = windowed;
+		segmentSize = pool.bufferSize;
+		segmentShift = Integer.numberOfTrailingZeros(segmentSize);
+		segmentMask = segmentSize - 1;
+		store = new SegmentStore<>(this, segmentShift, windowed, ByteBuffer[]::new, pool::take, pool::give);
+	}
+	
+	/**
+	 * Reads whatever the channel can provide right now
+	 * <p>
+	 *     Meant to be called by a selector thread once a non-blocking channel is readable.  A blocking channel will
+	 *     block until it provides some data, and for an asynchronous channel this does nothing, since it's read by
+	 *     completion handlers.
+	 * </p>
+	 * @return the number of bytes read, or -1 if the end of the channel has been reached.
+	 */
+	public int receive()
+	{
+		if (asynchronousChannel != null)
+			return complete ? -1 : 0;
+		synchronized(fillLock)
+		{
+			return readBlock();
+		}
+	}
+	
+	/**
+	 * Reads from the channel once, into the segment holding the end of the data
+	 * <p>
+	 *     Only called while holding the fill lock.
+	 * </p>
+	 * @return the number of bytes read, or -1 if the end has been reached.
+	 */
+	private int readBlock()
+	{
+		if (complete)
+			return -1;
+		try
+		{
+			int amount = channel.read(writableSegment());
+			if (amount == -1)
+			{
+				finish();
+				return -1;
+			}
+			publish(amount);
+			return amount;
+		}
+		catch (IOException ignored)
+		{
+			finish();
+			return -1;
+		}
+	}
+	
+	/**
+	 * Starts reading the next block from the asynchronous channel
+	 * <p>
+	 *     Only called while holding the fill lock.
+	 * </p>
+	 */
+	private void requestRead()
+	{
+		if (complete)
+			return;
+		try
+		{
+			asynchronousChannel.read(writableSegment(), null, new CompletionHandler<Integer, Object>()
+			{
+				@Override
+				public void completed(Integer amount, Object attachment)
+				{
+					synchronized(fillLock)
+					{
+						if (closed)
+							return;
+						if (amount == -1)
+							finish();
+						else
+						{
+							publish(amount);
+							requestRead();
+						}
+					}
+				}
+				
+				@Override
+				public void failed(Throwable exception, Object attachment)
+				{
+					synchronized(fillLock)
+					{
+						finish();
+					}
+				}
+			});
+		}
+		catch (RuntimeException exception)
+		{
+			finish();
+		}
+	}
+	
+	private void publish(int amount)
+	{
+		if (amount > 0)
+		{
+			size += amount;
+			wakeWaiters();
+		}
+	}
+	
+	/**
+	 * Completes this indexable and closes the channel
+	 * <p>
+	 *     Only called while holding the fill lock.
+	 * </p>
+	 */
+	private void finish()
+	{
+		if (complete)
+			return;
+		try
+		{
+			if (channel != null)
+				channel.close();
+			else
+				asynchronousChannel.close();
+		}
+		catch (IOException ignored)
+		{
+		
+		}
+		complete = true;
+		wakeWaiters();
+	}
+	
+	@Override
+	protected boolean fill()
+	{
+		if (complete)
+			return true;
+		if (asynchronousChannel == null)
+		{
+			synchronized(fillLock)
+			{
+				//a blocking channel always provides data or reaches its end
+				if (readBlock() != 0)
+					return true;
+			}
+		}
+		if (Thread.currentThread() == consumingThread)
+			throw needsData;
+		return false;
+	}
+	
+	/**
+	 * Runs a consumer without letting it wait for data that hasn't arrived yet
+	 * <p>
+	 *     If the consumer needs more data than is available, whatever it had read is undone, any filter states it
+	 *     pushed are popped, and null is returned.  Once more data has arrived the consumer can simply be run again.
+	 *     Since every attempt starts over, large values are best consumed once enough of their data has arrived,
+	 *     rather than on every receive().<br>
+	 *     Missing data is signalled by throwing an Error through the consumer, so the consumer must not catch Error
+	 *     or Throwable, or it will see an attempt that ran out of data as having failed.<br>
+	 *     A windowed indexable keeps the data from the indexer's starting position until the attempt is over.<br>
+	 *     A non-blocking channel is read as far as it can be while the consumer runs, but a blocking one may still
+	 *     block.
+	 * </p>
+	 * @param source an indexer of this indexable
+	 * @param consumer
+	 * @return the consumer's result, or null if more data is needed.
+	 */
+	public <Result> Consumer.ConsumptionResult<Result, Byte> tryConsume(Indexer<Byte> source,
+																		Consumer<Result, Byte> consumer)
+	{
+		if (source.indexable() != this)
+			throw new RuntimeException("The indexer must belong to this indexable.");
+		long start = source.checkpoint();
+		Thread previous = consumingThread;
+		consumingThread = Thread.currentThread();
+		try
+		{
+			return consumer.consume(source);
+		}
+		catch (NeedsData ignored)
+		{
+			source.reset(start);
+			return null;
+		}
+		finally
+		{
+			consumingThread = previous;
+			source.discard(start);
+		}
+	}
+	
+	/**
+	 * Gets the segment that the next byte from the channel will be written to, creating it if needed
+	 * <p>
+	 *     The segment is positioned where the data ends, and limited to its capacity.  Only called while holding the
+	 *     fill lock.
+	 * </p>
+	 * @return
+	 */
+	private ByteBuffer writableSegment()
+	{
+		ByteBuffer segment = store.writable(size);
+		segment.limit(segmentSize).position(size & segmentMask);
+		return segment;
+	}
+	
+	/**
+	 * Stops reading, closes the channel, and drops every buffer
+	 * <p>
+	 *     This indexable is completed, and none of its data can be read anymore.<br>
+	 *     Another thread might still be reading from the buffers, so only those that no live indexer can reach are
+	 *     given back to the pool, which is only ever the case in a windowed indexable.  The rest are left to be
+	 *     collected.  The segment an asynchronous read might still be writing to is never given back.
+	 * </p>
+	 */
+	@Override
+	public void close()
+	{
+		synchronized(fillLock)
+		{
+			if (closed)
+				return;
+			closed = true;
+			finish();
+			SegmentStore.Segments<ByteBuffer> current = store.segments;
+			int unreachable = windowed ? Math.min(retainedPosition(), size) >> segmentShift : current.first;
+			store.segments = new SegmentStore.Segments<>(new ByteBuffer[1], (size >> segmentShift) + 1);
+			for (int index = 0; index < unreachable - current.first; index++)
+				pool.give(current.array[index]);
+		}
+	}
+	
+	@Override
+	public boolean windowed()
+	{
+		return windowed;
+	}
+	
+	@Override
+	public int start()
+	{
+		return Math.min(store.start(), size);
+	}
+	
+	@Override
+	public byte getByte(int index)
+	{
+		if (index >= size)
+			throw new IndexOutOfBoundsException(index);
+		return store.segment(index).get(index & segmentMask);
+	}
+	
+	@Override
+	public void getBytes(int index, byte[] destination, int offset, int length)
+	{
+		if (index + length > size)
+			throw new IndexOutOfBoundsException(index + length - 1);
+		SegmentStore.Segments<ByteBuffer> current = store.segments;
+		while (length > 0)
+		{
+			int position = index & segmentMask;
+			int amount = Math.min(length, segmentSize - position);
+			store.segment(current, index).get(position, destination, offset, amount);
+			index += amount;
+			offset += amount;
+			length -= amount;
+		}
+	}
+	
+	@Override
+	public short getShort(int index)
+	{
+		if ((index & segmentMask) > segmentSize - 2 || index + 2 > size)
+			return super.getShort(index);
+		return store.segment(index).getShort(index & segmentMask);
+	}
+	
+	@Override
+	public int getInt(int index)
+	{
+		if ((index & segmentMask) > segmentSize - 4 || index + 4 > size)
+			return super.getInt(index);
+		return store.segment(index).getInt(index & segmentMask);
+	}
+	
+	@Override
+	public long getLong(int index)
+	{
+		if ((index & segmentMask) > segmentSize - 8 || index + 8 > size)
+			return super.getLong(index);
+		return store.segment(index).getLong(index & segmentMask);
+	}
+	
+	@Override
+	public int indexOf(byte value, int from, int to)
+	{
+		SegmentStore.Segments<ByteBuffer> current = store.segments;
+		int index = from;
+		while (index < to)
+		{
+			ByteBuffer segment = store.segment(current, index);
+			int position = index & segmentMask;
+			int end = Math.min(segmentSize, position + to - index);
+			for (int check = position; check < end; check++)
+			{
+				if (segment.get(check) == value)
+					return index + check - position;
+			}
+			index += end - position;
+		}
+		return -1;
+	}
+	
+	@Override
+	public void set(int index, Byte value)
+	{
+	
+	}
+	
+	@Override
+	public boolean complete()
+	{
+		return complete;
+	}
+	
+	@Override
+	public int size()
+	{
+		return size;
+	}
+	
+	@Override
+	public boolean contains(Object o)
+	{
+		return o instanceof Byte value && indexOf(value, start(), size) != -1;
+	}
+	
+	@Override
+	public boolean add(Byte aByte)
+	{
+		return false;
+	}
+	
+	@Override
+	public boolean remove(Object o)
+	{
+		return false;
+	}
+	
+	@Override
+	public void clear()
+	{
+	
+	}
+}
\ No newline at end of file
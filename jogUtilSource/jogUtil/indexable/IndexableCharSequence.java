@@ -0,0 +1,175 @@
+package jogUtil.indexable;
+
+import java.nio.*;
+
+/**
+ * A complete CharIndexable that reads straight from a String, any other CharSequence, or a char array
+ * <p>
+ *     The characters are never copied or boxed up front, each one is read from the source when it's asked for.  The
+ *     source shouldn't be changed while it's being indexed.
+ * </p>
+ */
+public class IndexableCharSequence extends CharIndexable
+{
+	final CharSequence sequence;
+	final String string;
+	final char[] array;
+	final int offset;
+	final int length;
+	
+	public IndexableCharSequence(CharSequence sequence)
+	{
+		this.sequence = sequence;
+		string = sequence instanceof String value ? value : null;
+		array = null;
+		offset = 0;
+		length = sequence.length();
+	}
+	
+	public IndexableCharSequence(char[] array)
+	{
+		this(array, 0, array.length);
+	}
+	
+	public IndexableCharSequence(char[] array, int offset, int length)
+	{
+		sequence = CharBuffer.wrap(array, offset, length);
+		string = null;
+		this.array = array;
+		this.offset = offset;
+		this.length = length;
+	}
+	
+	/**
+	 * Provides the underlying characters as a CharSequence.
+	 * @return
+	 */
+	public CharSequence sequence()
+	{
+		return sequence;
+	}
+	
+	@Override
+	public char getChar(int index)
+	{
+		if (array != null)
+		{
+			if (index < 0 || index >= length)
+				throw new IndexOutOfBoundsException(index);
+			return array[offset + index];
+		}
+		return sequence.charAt(index);
+	}
+	
+	@Override
+	public void getChars(int index, char[] destination, int offset, int length)
+	{
+		if (index < 0 || length < 0 || index + length > this.length)
+			throw new IndexOutOfBoundsException(index < 0 ? index : index + length - 1);
+		if (array != null)
+			System.arraycopy(array, this.offset + index, destination, offset, length);
+		else if (string != null)
+			string.getChars(index, index + length, destination, offset);
+		else
+			super.getChars(index, destination, offset, length);
+	}
+	
+	@Override
+	public int indexOf(char value, int from, int to)
+	{
+		if (string != null)
+		{
+			int found = string.indexOf(value, from);
+			return found < to ? found : -1;
+		}
+		return super.indexOf(value, from, to);
+	}
+	
+	@Override
+	public int indexOf(CharacterSet characters, int from, int to)
+	{
+		if (array != null)
+		{
+			for (int index = offset + from, end = offset + to; index < end; index++)
+			{
+				if (characters.contains(array[index]))
+					return index - offset;
+			}
+			return -1;
+		}
+		if (string != null)
+		{
+			for (int index = from; index < to; index++)
+			{
+				if (characters.contains(string.charAt(index)))
+					return index;
+			}
+			return -1;
+		}
+		return super.indexOf(characters, from, to);
+	}
+	
+	@Override
+	public String getString(int index, int length)
+	{
+		if (index < 0 || length < 0 || index + length > this.length)
+			throw new IndexOutOfBoundsException(index < 0 ? index : index + length - 1);
+		if (array != null)
+			return new String(array, offset + index, length);
+		return sequence.subSequence(index, index + length).toString();
+	}
+	
+	/**
+	 * Changes a character of the underlying char array
+	 * <p>
+	 *     Other sequences can't be changed, so setting one of their characters does nothing.
+	 * </p>
+	 * @param index
+	 * @param value
+	 */
+	@Override
+	public void set(int index, Character value)
+	{
+		if (array == null)
+			return;
+		if (index < 0 || index >= length)
+			throw new IndexOutOfBoundsException(index);
+		array[offset + index] = value;
+	}
+	
+	@Override
+	public boolean complete()
+	{
+		return true;
+	}
+	
+	@Override
+	public int size()
+	{
+		return length;
+	}
+	
+	@Override
+	public boolean add(Character character)
+	{
+		return false;
+	}
+	
+	@Override
+	public boolean remove(Object o)
+	{
+		return false;
+	}
+	
+	@Override
+	public void clear()
+	{
+	
+	}
+	
+	@Override
+	public String toString()
+	{
+		return sequence.toString();
+	}
+}
\ No newline at end of file
@@ -2,73 +2,197 @@ package jogUtil.indexable;
 
 
 import java.io.*;
-import java.util.*;
+import java.lang.invoke.*;
+import java.nio.*;
 
-public class IndexableInputStream extends Indexable<Byte>
+/**
+ * A ByteIndexable that fills itself from an InputStream, either on its own thread or on demand
+ * <p>
+ *     The stream is read straight into fixed size segments of primitive bytes, as much as the stream will provide
+ *     at a time, so nothing is boxed or copied on the way in.  Waiting threads are woken once per read instead of
+ *     once per byte.<br>
+ *     The size is only published after the bytes it covers have been written, so other threads can read anything
+ *     below size() without any further synchronization.
+ * </p>
+ */
+public class IndexableInputStream extends ByteIndexable
 {
-	final ArrayList<Byte> data = new ArrayList<>();
+	static final int segmentShift = 14;
+	static final int segmentSize = 1 << segmentShift;
+	static final int segmentMask = segmentSize - 1;
+	private static final VarHandle shorts = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle ints = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle longs = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+	
+	final SegmentStore<byte[]> store;
+	volatile int size = 0;
 	final InputStream stream;
-	final EatingThread thread;
-	boolean complete = false;
+	final FillMode mode;
+	final boolean windowed;
+	final Thread thread;
+	final Object fillLock = new Object();
+	volatile boolean stopped = false;
+	volatile boolean complete = false;
 	
+	/**
+	 * Creates an indexable that reads ahead from the stream on its own thread
+	 * @param stream
+	 */
 	public IndexableInputStream(InputStream stream)
 	{
+		this(stream, FillMode.THREAD);
+	}
+	
+	/**
+	 * Creates an indexable that reads from the stream in the given mode
+	 * <p>
+	 *     In PULL mode nothing is read until an indexer needs it, and no thread is created.
+	 * </p>
+	 * @param stream
+	 * @param mode
+	 */
+	public IndexableInputStream(InputStream stream, FillMode mode)
+	{
+		this(stream, mode, false);
+	}
+	
+	/**
+	 * Creates an indexable that reads from the stream in the given mode, and optionally only keeps the data its
+	 * indexers can still reach
+	 * <p>
+	 *     A windowed indexable releases each segment once every live indexer has moved past it without a mark or a
+	 *     checkpoint before it, so memory use stays flat for endless sources.  Indexers only move back to positions
+	 *     they've marked or checkpointed, so nothing they can rewind to is released.  Until the first indexer is
+	 *     created nothing is released at all.
+	 * </p>
+	 * @param stream
+	 * @param mode
+	 * @param windowed
+	 * @see Indexer#mark()
+	 * @see Indexer#checkpoint()
+	 */
+	public IndexableInputStream(InputStream stream, FillMode mode, boolean windowed)
+	{
+		this(stream, mode, windowed, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Creates an indexable that reads from the stream in the given mode, and holds the reading thread back once it has
+	 * the given number of unconsumed bytes
+	 * <p>
+	 *     The capacity can be exceeded by up to one block.  In PULL mode nothing is read until an indexer needs it
+	 *     anyway, so the capacity only decides which indexers are tracked.
+	 * </p>
+	 * @param stream
+	 * @param mode
+	 * @param windowed
+	 * @param capacity
+	 * @see Indexable#Indexable(int)
+	 */
+	public IndexableInputStream(InputStream stream, FillMode mode, boolean windowed, int capacity)
+	{
+		super(capacity);
 		this.stream = stream;
-		thread = new EatingThread();
-		thread.start();
+		this.mode = mode;
+		this.windowed = windowed;
+		store = new SegmentStore<>(this, segmentShift, windowed, byte[][]::new, () -> new byte[segmentSize], null);
+		thread = mode.newThread(() ->
+		{
+			while (waitForSpace(() -> stopped) && readBlock());
+			finish();
+		});
+		if (thread != null)
+			thread.start();
 	}
 	
-	private class EatingThread extends Thread
+	/**
+	 * Reads the next block of bytes from the stream
+	 * <p>
+	 *     Only called by the reading thread, or while holding the fill lock in PULL mode.
+	 * </p>
+	 * @return false if the end of the stream was reached, or it could not be read
+	 */
+	private boolean readBlock()
 	{
-		boolean stopped = false;
-		
-		@Override
-		public void run()
+		try
 		{
-			try
-			{
-				while (!stopped)
-				{
-					byte[] buffer = new byte[stream.available()];
-					if (buffer.length == 0)
-						buffer = new byte[1];
-					int amount = stream.read(buffer);
-					if (amount == -1)
-						break;
-					else
-					{
-						for (byte value : buffer)
-							data.add(value);
-						wakeWaiters();
-					}
-				}
-			}
-			catch (IOException ignored)
+			int filled = size & segmentMask;
+			byte[] segment = store.writable(size);
+			int amount = stream.read(segment, filled, segmentSize - filled);
+			if (amount == -1)
+				return false;
+			else if (amount > 0)
 			{
-			
+				size += amount;
+				wakeWaiters();
 			}
-			try
-			{
-				stream.close();
-			}
-			catch (IOException ignored)
-			{
-			
-			}
-			complete = true;
-			wakeWaiters();
+			return true;
+		}
+		catch (IOException ignored)
+		{
+			return false;
+		}
+	}
+	
+	private void finish()
+	{
+		try
+		{
+			stream.close();
 		}
+		catch (IOException ignored)
+		{
+		
+		}
+		complete = true;
+		wakeWaiters();
+	}
+	
+	@Override
+	protected boolean fill()
+	{
+		if (thread != null)
+			return false;
+		synchronized(fillLock)
+		{
+			if (!complete && (stopped || !readBlock()))
+				finish();
+		}
+		return true;
+	}
+	
+	@Override
+	public boolean windowed()
+	{
+		return windowed;
+	}
+	
+	@Override
+	public int start()
+	{
+		return store.start();
 	}
 	
 	/**
 	 * Causes the reading thread to stop even if it hasn't yet reached the end of the source.
 	 * <p>
-	 *     Will wait for the eating thread to terminate.
+	 *     Will wait for the reading thread to terminate.  In PULL mode the source is closed and this indexable is
+	 *     completed straight away.
 	 * </p>
 	 */
 	public void stop()
 	{
-		thread.stopped = true;
+		stopped = true;
+		wakeProducers();
+		if (thread == null)
+		{
+			synchronized(fillLock)
+			{
+				if (!complete)
+					finish();
+			}
+			return;
+		}
 		while (thread.isAlive())
 		{
 			try
@@ -83,9 +207,72 @@ public class IndexableInputStream extends Indexable<Byte>
 	}
 	
 	@Override
-	public Byte get(int index)
+	public byte getByte(int index)
 	{
-		return data.get(index);
+		if (index >= size)
+			throw new IndexOutOfBoundsException(index);
+		return store.segment(index)[index & segmentMask];
+	}
+	
+	@Override
+	public void getBytes(int index, byte[] destination, int offset, int length)
+	{
+		if (index + length > size)
+			throw new IndexOutOfBoundsException(index + length - 1);
+		SegmentStore.Segments<byte[]> current = store.segments;
+		while (length > 0)
+		{
+			int position = index & segmentMask;
+			int amount = Math.min(length, segmentSize - position);
+			System.arraycopy(store.segment(current, index), position, destination, offset, amount);
+			index += amount;
+			offset += amount;
+			length -= amount;
+		}
+	}
+	
+	@Override
+	public short getShort(int index)
+	{
+		if ((index & segmentMask) > segmentSize - 2 || index + 2 > size)
+			return super.getShort(index);
+		return (short)shorts.get(store.segment(index), index & segmentMask);
+	}
+	
+	@Override
+	public int getInt(int index)
+	{
+		if ((index & segmentMask) > segmentSize - 4 || index + 4 > size)
+			return super.getInt(index);
+		return (int)ints.get(store.segment(index), index & segmentMask);
+	}
+	
+	@Override
+	public long getLong(int index)
+	{
+		if ((index & segmentMask) > segmentSize - 8 || index + 8 > size)
+			return super.getLong(index);
+		return (long)longs.get(store.segment(index), index & segmentMask);
+	}
+	
+	@Override
+	public int indexOf(byte value, int from, int to)
+	{
+		SegmentStore.Segments<byte[]> current = store.segments;
+		int index = from;
+		while (index < to)
+		{
+			byte[] segment = store.segment(current, index);
+			int position = index & segmentMask;
+			int end = Math.min(segmentSize, position + to - index);
+			for (int check = position; check < end; check++)
+			{
+				if (segment[check] == value)
+					return index + check - position;
+			}
+			index += end - position;
+		}
+		return -1;
 	}
 	
 	@Override
@@ -103,13 +290,13 @@ public class IndexableInputStream extends Indexable<Byte>
 	@Override
 	public int size()
 	{
-		return data.size();
+		return size;
 	}
 	
 	@Override
 	public boolean contains(Object o)
 	{
-		return data.contains(o);
+		return o instanceof Byte value && indexOf(value, start(), size) != -1;
 	}
 	
 	@Override
@@ -1,92 +1,262 @@
 package jogUtil.indexable;
 
+import java.lang.invoke.*;
 import java.util.*;
+import java.util.concurrent.atomic.*;
 
+/**
+ * An append-only Indexable that any number of threads can add to while any number of indexers read from it
+ * <p>
+ *     Values are kept in fixed size segments that are never moved, so reading never locks.  Each value added claims
+ *     the next index atomically, and the size only ever grows over values that have been written, so anything below
+ *     size() can be read without any further synchronization.  Whichever producer writes the value the size has
+ *     stopped at moves it past every written value that follows, so no producer ever waits for another.<br>
+ *     Since indices never change, values can't be removed, and remove() and clear() do nothing.
+ * </p>
+ */
 public class IndexableList<Type> extends Indexable<Type>
 {
-	final List<Type> list;
-	boolean finished = false;
+	static final int segmentShift = 10;
+	static final int segmentSize = 1 << segmentShift;
+	static final int segmentMask = segmentSize - 1;
+	private static final VarHandle segmentSlots = MethodHandles.arrayElementVarHandle(Object[][].class);
+	private static final VarHandle valueSlots = MethodHandles.arrayElementVarHandle(Object[].class);
+	private static final VarHandle sizeField;
+	/**
+	 * Stored in place of null values, so that an empty slot always means the value hasn't been written yet
+	 */
+	private static final Object nullValue = new Object();
+	/**
+	 * Set in claimed once this list has been finished, so that claiming an index and finishing can't interleave
+	 */
+	private static final int finishedBit = Integer.MIN_VALUE;
+	
+	static
+	{
+		try
+		{
+			sizeField = MethodHandles.lookup().findVarHandle(IndexableList.class, "size", int.class);
+		}
+		catch (ReflectiveOperationException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+	
+	volatile Object[][] segments = new Object[4][];
+	final Object growLock = new Object();
+	/**
+	 * The number of indices claimed so far, with the finished bit set once this list has been finished
+	 */
+	final AtomicInteger claimed = new AtomicInteger();
+	volatile int size = 0;
 	
 	public IndexableList()
 	{
-		list = new ArrayList<>();
+	
+	}
+	
+	/**
+	 * Creates a bounded list, which makes add() wait while the given number of values haven't been consumed yet
+	 * <p>
+	 *     Producers adding at the same time can each exceed the capacity by one value.
+	 * </p>
+	 * @param capacity
+	 * @see Indexable#Indexable(int)
+	 * @see #offer(Object)
+	 */
+	public IndexableList(int capacity)
+	{
+		super(capacity);
 	}
 	
 	public IndexableList(List<Type> list)
 	{
-		this();
-		this.list.addAll(list);
+		for (Type value : list)
+			add(value);
 	}
 	
 	@Override
+	@SuppressWarnings("unchecked")
 	public Type get(int index)
 	{
-		return null;
+		if (index < 0 || index >= size)
+			return null;
+		Object value = segments[index >> segmentShift][index & segmentMask];
+		//only add() and set() write to the segments, and both only store values of Type or the null sentinel
+		return value == nullValue ? null : (Type)value;
 	}
 	
+	/**
+	 * Replaces a value that has already been added
+	 * <p>
+	 *     The new value is not safely published, indexers reading from other threads might not see it.
+	 * </p>
+	 * @param index
+	 * @param value
+	 */
 	@Override
 	public void set(int index, Type value)
 	{
-		list.set(index, value);
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException(index);
+		segments[index >> segmentShift][index & segmentMask] = value == null ? nullValue : value;
 	}
 	
+	/**
+	 * Checks if this list has been finished, and every value added before that has been published
+	 * @return
+	 */
 	@Override
 	public boolean complete()
 	{
-		return finished;
+		int claims = claimed.get();
+		return (claims & finishedBit) != 0 && size == (claims & ~finishedBit);
 	}
 	
 	/**
 	 * Marks this indexable as complete.
 	 * <p>
-	 *     It will no longer be possible to add and remove values.
+	 *     It will no longer be possible to add values.  Values that had already claimed their index when this was
+	 *     called are still published, any others aren't added.
 	 * </p>
 	 */
 	public void finish()
 	{
-		finished = true;
+		claimed.getAndAccumulate(finishedBit, (claims, bit) -> claims | bit);
 		wakeWaiters();
 	}
 	
 	@Override
 	public int size()
 	{
-		return list.size();
+		return size;
 	}
 	
 	@Override
 	public boolean contains(Object o)
 	{
-		return list.contains(o);
+		for (int index = 0, size = this.size; index < size; index++)
+		{
+			if (Objects.equals(get(index), o))
+				return true;
+		}
+		return false;
 	}
 	
+	/**
+	 * Adds a value
+	 * <p>
+	 *     If this list is bounded and full this thread will yield until a consumer makes room.<br>
+	 *     Once its index is claimed the value is written straight into its segment, then published along with any
+	 *     values after it that were written while the size was held back by this one.
+	 * </p>
+	 * @param type
+	 * @return false if this list has been finished.
+	 * @see #offer(Object)
+	 */
 	@Override
 	public boolean add(Type type)
 	{
-		if (!finished)
+		waitForSpace();
+		int index;
+		do
+		{
+			index = claimed.get();
+			if ((index & finishedBit) != 0)
+				return false;
+		}
+		while (!claimed.compareAndSet(index, index + 1));
+		valueSlots.setVolatile(writableSegment(index >> segmentShift), index & segmentMask,
+							   type == null ? nullValue : type);
+		publish();
+		wakeWaiters();
+		return true;
+	}
+	
+	/**
+	 * Moves the size past every value that has been written right after it
+	 * <p>
+	 *     A producer always writes its value before calling this, so if the size is held back by a value that's still
+	 *     being written, the producer writing it will find the values after it once it gets here.
+	 * </p>
+	 */
+	private void publish()
+	{
+		Object[][] segments = this.segments;
+		for (int current = size; current < (claimed.get() & ~finishedBit); current = size)
+		{
+			int segmentIndex = current >> segmentShift;
+			if (segmentIndex >= segments.length)
+			{
+				segments = this.segments;
+				if (segmentIndex >= segments.length)
+					return;
+			}
+			Object[] segment = (Object[])segmentSlots.getAcquire(segments, segmentIndex);
+			if (segment == null || valueSlots.getVolatile(segment, current & segmentMask) == null)
+				return;
+			sizeField.compareAndSet(this, current, current + 1);
+		}
+	}
+	
+	/**
+	 * Adds a value without waiting for room
+	 * @param value
+	 * @return false if this list is full or finished, in which case the value wasn't added.
+	 * @see #full()
+	 */
+	public boolean offer(Type value)
+	{
+		return !full() && add(value);
+	}
+	
+	/**
+	 * Gets a segment to write to, creating it if needed
+	 * <p>
+	 *     Segments are created and the segment array is grown while holding the grow lock, which only happens once
+	 *     per segment.  Segments are published with release semantics, so a producer that finds one without locking
+	 *     also sees it fully created.
+	 * </p>
+	 * @param segmentIndex
+	 * @return
+	 */
+	private Object[] writableSegment(int segmentIndex)
+	{
+		Object[][] current = segments;
+		if (segmentIndex < current.length)
 		{
-			boolean changed = list.add(type);
-			if (changed)
-				wakeWaiters();
-			return changed;
+			Object[] segment = (Object[])segmentSlots.getAcquire(current, segmentIndex);
+			if (segment != null)
+				return segment;
+		}
+		synchronized(growLock)
+		{
+			current = segments;
+			if (segmentIndex >= current.length)
+			{
+				current = Arrays.copyOf(current, Math.max(current.length * 2, segmentIndex + 1));
+				segments = current;
+			}
+			Object[] segment = current[segmentIndex];
+			if (segment == null)
+			{
+				segment = new Object[segmentSize];
+				segmentSlots.setRelease(current, segmentIndex, segment);
+			}
+			return segment;
 		}
-		else
-			return false;
 	}
 	
 	@Override
 	public boolean remove(Object o)
 	{
-		if (!finished)
-			return list.remove(o);
-		else
-			return false;
+		return false;
 	}
 	
 	@Override
 	public void clear()
 	{
-		if (!finished)
-			list.clear();
+	
 	}
 }
\ No newline at end of file
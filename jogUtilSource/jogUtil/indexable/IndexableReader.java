@@ -1,70 +1,205 @@
 package jogUtil.indexable;
 
 import java.io.*;
-import java.util.*;
 
-public class IndexableReader extends Indexable<Character>
+/**
+ * A CharIndexable that fills itself from a Reader, either on its own thread or on demand
+ * <p>
+ *     The reader is read a block at a time straight into fixed size segments of primitive characters, and waiting
+ *     threads are woken once per block instead of once per character.<br>
+ *     The size is only published after the characters it covers have been written, so other threads can read
+ *     anything below size() without any further synchronization.
+ * </p>
+ */
+public class IndexableReader extends CharIndexable
 {
-	final ArrayList<Character> characters = new ArrayList<>();
+	static final int segmentShift = 13;
+	static final int segmentSize = 1 << segmentShift;
+	static final int segmentMask = segmentSize - 1;
+	
+	final SegmentStore<char[]> store;
+	volatile int size = 0;
 	final Reader reader;
-	final EatingThread thread;
-	boolean complete = false;
+	final FillMode mode;
+	final boolean windowed;
+	final Thread thread;
+	final Object fillLock = new Object();
+	volatile boolean stopped = false;
+	volatile boolean complete = false;
 	
+	/**
+	 * Creates an indexable that reads ahead from the reader on its own thread
+	 * @param reader
+	 */
 	public IndexableReader(Reader reader)
 	{
+		this(reader, FillMode.THREAD);
+	}
+	
+	/**
+	 * Creates an indexable that reads from the reader in the given mode
+	 * <p>
+	 *     In PULL mode nothing is read until an indexer needs it, and no thread is created.
+	 * </p>
+	 * @param reader
+	 * @param mode
+	 */
+	public IndexableReader(Reader reader, FillMode mode)
+	{
+		this(reader, mode, false);
+	}
+	
+	/**
+	 * Creates an indexable that reads from the reader in the given mode, and optionally only keeps the data its
+	 * indexers can still reach
+	 * <p>
+	 *     A windowed indexable releases each segment once every live indexer has moved past it without a mark or a
+	 *     checkpoint before it, so memory use stays flat for endless sources.  Indexers only move back to positions
+	 *     they've marked or checkpointed, so nothing they can rewind to is released.  Until the first indexer is
+	 *     created nothing is released at all.
+	 * </p>
+	 * @param reader
+	 * @param mode
+	 * @param windowed
+	 * @see Indexer#mark()
+	 * @see Indexer#checkpoint()
+	 */
+	public IndexableReader(Reader reader, FillMode mode, boolean windowed)
+	{
+		this(reader, mode, windowed, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Creates an indexable that reads from the reader in the given mode, and holds the reading thread back once it has
+	 * the given number of unconsumed characters
+	 * <p>
+	 *     The capacity can be exceeded by up to one block.  In PULL mode nothing is read until an indexer needs it
+	 *     anyway, so the capacity only decides which indexers are tracked.
+	 * </p>
+	 * @param reader
+	 * @param mode
+	 * @param windowed
+	 * @param capacity
+	 * @see Indexable#Indexable(int)
+	 */
+	public IndexableReader(Reader reader, FillMode mode, boolean windowed, int capacity)
+	{
+		super(capacity);
 		this.reader = reader;
-		thread = new EatingThread();
-		thread.start();
+		this.mode = mode;
+		this.windowed = windowed;
+		store = new SegmentStore<>(this, segmentShift, windowed, char[][]::new, () -> new char[segmentSize], null);
+		thread = mode.newThread(() ->
+		{
+			while (waitForSpace(() -> stopped) && readBlock());
+			finish();
+		});
+		if (thread != null)
+			thread.start();
 	}
 	
-	private class EatingThread extends Thread
+	/**
+	 * Reads the next block of characters from the reader
+	 * <p>
+	 *     Only called by the reading thread, or while holding the fill lock in PULL mode.  Subclasses that produce
+	 *     characters some other way override this.
+	 * </p>
+	 * @return false if the end of the reader was reached, or it could not be read
+	 * @see IndexableUtf8
+	 */
+	boolean readBlock()
 	{
-		boolean stopped = false;
-		
-		@Override
-		public void run()
+		try
 		{
-			try
+			int filled = size & segmentMask;
+			char[] segment = writableSegment();
+			int amount = reader.read(segment, filled, segmentSize - filled);
+			if (amount == -1)
+				return false;
+			else if (amount > 0)
 			{
-				while (!stopped)
-				{
-					char[] buffer = new char[1];
-					int amount = reader.read(buffer);
-					if (amount == -1)
-						break;
-					else
-					{
-						characters.add(buffer[0]);
-						wakeWaiters();
-					}
-				}
-			}
-			catch (IOException ignored)
-			{
-			
-			}
-			try
-			{
-				reader.close();
-			}
-			catch (IOException ignored)
-			{
-			
+				size += amount;
+				wakeWaiters();
 			}
-			complete = true;
-			wakeWaiters();
+			return true;
+		}
+		catch (IOException ignored)
+		{
+			return false;
 		}
 	}
 	
+	private void finish()
+	{
+		try
+		{
+			reader.close();
+		}
+		catch (IOException ignored)
+		{
+		
+		}
+		complete = true;
+		wakeWaiters();
+	}
+	
+	@Override
+	protected boolean fill()
+	{
+		if (thread != null)
+			return false;
+		synchronized(fillLock)
+		{
+			if (!complete && (stopped || !readBlock()))
+				finish();
+		}
+		return true;
+	}
+	
+	/**
+	 * Gets the segment that the next character will be written to, creating it if needed
+	 * <p>
+	 *     Only called by the reading thread, or while holding the fill lock in PULL mode.
+	 * </p>
+	 * @return
+	 */
+	char[] writableSegment()
+	{
+		return store.writable(size);
+	}
+	
+	@Override
+	public boolean windowed()
+	{
+		return windowed;
+	}
+	
+	@Override
+	public int start()
+	{
+		return store.start();
+	}
+	
 	/**
 	 * Causes the reading thread to stop even if it hasn't yet reached the end of the source.
 	 * <p>
-	 *     Will wait for the eating thread to terminate.
+	 *     Will wait for the reading thread to terminate.  In PULL mode the source is closed and this indexable is
+	 *     completed straight away.
 	 * </p>
 	 */
 	public void stop()
 	{
-		thread.stopped = true;
+		stopped = true;
+		wakeProducers();
+		if (thread == null)
+		{
+			synchronized(fillLock)
+			{
+				if (!complete)
+					finish();
+			}
+			return;
+		}
 		while (thread.isAlive())
 		{
 			try
@@ -79,36 +214,95 @@ public class IndexableReader extends Indexable<Character>
 	}
 	
 	@Override
-	public Character get(int index)
+	public char getChar(int index)
 	{
-		if (index >= 0 && index < characters.size())
-			return characters.get(index);
-		else
-			return null;
+		if (index >= size)
+			throw new IndexOutOfBoundsException(index);
+		return store.segment(index)[index & segmentMask];
 	}
 	
 	@Override
-	public void set(int index, Character value)
+	public void getChars(int index, char[] destination, int offset, int length)
+	{
+		if (index + length > size)
+			throw new IndexOutOfBoundsException(index + length - 1);
+		SegmentStore.Segments<char[]> current = store.segments;
+		while (length > 0)
+		{
+			int position = index & segmentMask;
+			int amount = Math.min(length, segmentSize - position);
+			System.arraycopy(store.segment(current, index), position, destination, offset, amount);
+			index += amount;
+			offset += amount;
+			length -= amount;
+		}
+	}
+	
+	@Override
+	public int indexOf(char value, int from, int to)
 	{
+		SegmentStore.Segments<char[]> current = store.segments;
+		int index = from;
+		while (index < to)
+		{
+			char[] segment = store.segment(current, index);
+			int position = index & segmentMask;
+			int end = Math.min(segmentSize, position + to - index);
+			for (int check = position; check < end; check++)
+			{
+				if (segment[check] == value)
+					return index + check - position;
+			}
+			index += end - position;
+		}
+		return -1;
+	}
+	
+	@Override
+	public int indexOf(CharacterSet characters, int from, int to)
+	{
+		SegmentStore.Segments<char[]> current = store.segments;
+		int index = from;
+		while (index < to)
+		{
+			char[] segment = store.segment(current, index);
+			int position = index & segmentMask;
+			int end = Math.min(segmentSize, position + to - index);
+			for (int check = position; check < end; check++)
+			{
+				if (characters.contains(segment[check]))
+					return index + check - position;
+			}
+			index += end - position;
+		}
+		return -1;
+	}
 	
+	@Override
+	public String getString(int index, int length)
+	{
+		int position = index & segmentMask;
+		if (position + length > segmentSize || index + length > size)
+			return super.getString(index, length);
+		return new String(store.segment(index), position, length);
 	}
 	
 	@Override
-	public boolean complete()
+	public void set(int index, Character value)
 	{
-		return complete;
+	
 	}
 	
 	@Override
-	public int size()
+	public boolean complete()
 	{
-		return characters.size();
+		return complete;
 	}
 	
 	@Override
-	public boolean contains(Object o)
+	public int size()
 	{
-		return characters.contains(o);
+		return size;
 	}
 	
 	@Override
@@ -0,0 +1,237 @@
+package jogUtil.indexable;
+
+import java.io.*;
+import java.lang.invoke.*;
+import java.nio.*;
+
+/**
+ * A CharIndexable that decodes UTF-8 from a byte Indexable as its characters are needed
+ * <p>
+ *     Bytes are copied from the source a block at a time and decoded straight into the character segments, in
+ *     whichever thread is waiting for characters, so no thread or Reader is involved.  Runs of ASCII are copied without
+ *     any further decoding.<br>
+ *     A sequence split across blocks, or across data that hasn't arrived yet, is kept until the rest of it is
+ *     available.  Malformed sequences, including one left unfinished at the end of the source, are each replaced by
+ *     U+FFFD.<br>
+ *     The source is read through an indexer that only moves forward, so a windowed source can release the bytes as
+ *     they're decoded.
+ * </p>
+ */
+public class IndexableUtf8 extends IndexableReader
+{
+	static final int blockSize = 8192;
+	static final char replacement = '\uFFFD';
+	private static final VarHandle longs = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+	
+	final Indexer<Byte> source;
+	final ByteIndexer bytes;
+	final byte[] input = new byte[blockSize];
+	/**
+	 * Where a block is decoded to before it's copied into the segments, every byte decodes to at most one character
+	 */
+	final char[] output = new char[blockSize];
+	/**
+	 * Number of bytes at the start of the input that belong to a sequence which couldn't be decoded yet
+	 */
+	int carried = 0;
+	
+	public IndexableUtf8(Indexable<Byte> source)
+	{
+		this(source.iterator(), false);
+	}
+	
+	/**
+	 * Creates an indexable that decodes everything from the source indexer's current position on
+	 * <p>
+	 *     The indexer is used by this indexable from then on, and shouldn't be moved by anything else.
+	 * </p>
+	 * @param source
+	 * @param windowed whether to only keep the characters that this indexable's indexers can still reach
+	 * @see IndexableReader#IndexableReader(Reader, FillMode, boolean)
+	 */
+	public IndexableUtf8(Indexer<Byte> source, boolean windowed)
+	{
+		super(Reader.nullReader(), FillMode.PULL, windowed);
+		this.source = source;
+		bytes = source instanceof ByteIndexer byteIndexer ? byteIndexer : null;
+	}
+	
+	@Override
+	boolean readBlock()
+	{
+		int read = readInput();
+		boolean ended = read == -1;
+		int end = carried + Math.max(read, 0);
+		int position = decode(end, ended);
+		carried = end - position;
+		System.arraycopy(input, position, input, 0, carried);
+		return !ended;
+	}
+	
+	/**
+	 * Copies as many bytes as are available into the input, after any carried bytes
+	 * <p>
+	 *     Waits for at least one byte to become available, unless the source is at its end.
+	 * </p>
+	 * @return the number of bytes copied, or -1 if the source is at its end.
+	 */
+	private int readInput()
+	{
+		if (bytes != null)
+			return bytes.readAvailable(input, carried, input.length - carried);
+		if (source.atEnd())
+			return -1;
+		int count = 0;
+		do
+			input[carried + count++] = source.next();
+		while (carried + count < input.length && source.hasNext(false) && !source.atEnd());
+		return count;
+	}
+	
+	/**
+	 * Decodes the input into characters, and adds them to this indexable
+	 * @param end number of bytes in the input
+	 * @param ended whether the source has no more bytes, in which case nothing is left undecoded
+	 * @return the number of bytes decoded, the rest being an unfinished sequence
+	 */
+	private int decode(int end, boolean ended)
+	{
+		byte[] input = this.input;
+		char[] output = this.output;
+		int position = 0;
+		int count = 0;
+		while (position < end)
+		{
+			int value = input[position];
+			if (value >= 0)
+			{
+				//the length of the ASCII run is found 8 bytes at a time, then it's widened in a loop simple enough to
+				//be vectorized
+				int run = position + 1;
+				while (run + 8 <= end && ((long)longs.get(input, run) & 0x8080808080808080L) == 0)
+					run += 8;
+				while (run < end && input[run] >= 0)
+					run++;
+				int length = run - position;
+				for (int index = 0; index < length; index++)
+					output[count + index] = (char)input[position + index];
+				count += length;
+				position = run;
+				continue;
+			}
+			
+			int lead = value & 0xFF;
+			int length = sequenceLength(lead);
+			if (length == 0)
+			{
+				output[count++] = replacement;
+				position++;
+				continue;
+			}
+			int valid = validPrefix(input, position, end, length);
+			if (valid < length)
+			{
+				if (position + valid == end && !ended)
+					break;
+				output[count++] = replacement;
+				position += valid;
+				continue;
+			}
+			
+			if (length == 2)
+				output[count++] = (char)(((lead & 0x1F) << 6) | (input[position + 1] & 0x3F));
+			else if (length == 3)
+				output[count++] = (char)(((lead & 0x0F) << 12) | ((input[position + 1] & 0x3F) << 6)
+										 | (input[position + 2] & 0x3F));
+			else
+			{
+				int codePoint = ((lead & 0x07) << 18) | ((input[position + 1] & 0x3F) << 12)
+								| ((input[position + 2] & 0x3F) << 6) | (input[position + 3] & 0x3F);
+				output[count++] = Character.highSurrogate(codePoint);
+				output[count++] = Character.lowSurrogate(codePoint);
+			}
+			position += length;
+		}
+		store(count);
+		return position;
+	}
+	
+	/**
+	 * Copies decoded characters into the segments, and publishes them
+	 * @param count number of characters in the output
+	 */
+	private void store(int count)
+	{
+		if (count == 0)
+			return;
+		int stored = 0;
+		while (stored < count)
+		{
+			int filled = size & segmentMask;
+			char[] segment = writableSegment();
+			int amount = Math.min(count - stored, segmentSize - filled);
+			System.arraycopy(output, stored, segment, filled, amount);
+			stored += amount;
+			size += amount;
+		}
+		wakeWaiters();
+	}
+	
+	/**
+	 * Gives the length of the sequence a lead byte starts
+	 * @param lead
+	 * @return the length, or 0 if the byte can't start a sequence
+	 */
+	private static int sequenceLength(int lead)
+	{
+		if (lead < 0xC2)
+			return 0;
+		else if (lead < 0xE0)
+			return 2;
+		else if (lead < 0xF0)
+			return 3;
+		else if (lead < 0xF5)
+			return 4;
+		else
+			return 0;
+	}
+	
+	/**
+	 * Counts how many bytes of a sequence are valid, stopping at the first invalid byte or the end of the input
+	 * <p>
+	 *     The second byte is restricted further for some lead bytes, which rules out overlong encodings, surrogates, and
+	 *     code points past U+10FFFF.
+	 * </p>
+	 * @param input
+	 * @param position where the sequence starts
+	 * @param end
+	 * @param length the length of the sequence
+	 * @return the number of valid bytes, including the lead byte.
+	 */
+	private static int validPrefix(byte[] input, int position, int end, int length)
+	{
+		int lead = input[position] & 0xFF;
+		int count = 1;
+		while (count < length && position + count < end)
+		{
+			int value = input[position + count] & 0xFF;
+			int low = 0x80;
+			int high = 0xBF;
+			if (count == 1)
+			{
+				if (lead == 0xE0)
+					low = 0xA0;
+				else if (lead == 0xED)
+					high = 0x9F;
+				else if (lead == 0xF0)
+					low = 0x90;
+				else if (lead == 0xF4)
+					high = 0x8F;
+			}
+			if (value < low || value > high)
+				break;
+			count++;
+		}
+		return count;
+	}
+}
\ No newline at end of file
@@ -5,8 +5,19 @@ import java.util.*;
 public class Indexer<Type> implements Iterator<Type>
 {
 	final Indexable<Type> indexable;
+	/**
+	 * Whether the indexable has to be told how far this indexer has read
+	 */
+	final boolean bounded;
 	int index;
+	volatile int mark = -1;
+	/**
+	 * The earliest position of the checkpoints that haven't been discarded yet, or -1 if there are none
+	 */
+	volatile int held = -1;
+	int holds = 0;
 	final ArrayDeque<FilterState<Type>> filterStateStack = new ArrayDeque<>();
+	FilterState<Type> filterState;
 	
 	public Indexer(Indexable<Type> indexable)
 	{
@@ -17,7 +28,11 @@ public class Indexer<Type> implements Iterator<Type>
 	{
 		this.indexable = indexable;
 		this.index = index;
-		filterStateStack.push(new FilterState<>());
+		bounded = indexable.bounded();
+		filterState = new FilterState<>();
+		filterStateStack.push(filterState);
+		indexable.track(this);
+		advanced();
 	}
 	
 	/**
@@ -69,9 +84,122 @@ public class Indexer<Type> implements Iterator<Type>
 	 */
 	public void setPosition(int index)
 	{
-		if (index < 0 || index > indexable.size())
+		if (index < indexable.start() || index > indexable.size())
 			throw new IndexOutOfBoundsException();
 		this.index = index;
+		advanced();
+	}
+	
+	/**
+	 * Lets a bounded indexable know how far this indexer has read, so that its producers can add more
+	 * <p>
+	 *     Called whenever the position moves forward.
+	 * </p>
+	 */
+	final void advanced()
+	{
+		if (bounded)
+			indexable.consumeTo(index);
+	}
+	
+	/**
+	 * Captures the current position and filter state, so that the indexer can be moved back to them with reset()
+	 * <p>
+	 *     Unlike copy() nothing is allocated, the checkpoint is just the position and the depth of the filter state
+	 *     stack packed into a long, which makes trying out alternatives and backtracking cheap.<br>
+	 *     Filter states pushed after the checkpoint are popped when resetting to it, but changes to the filters of
+	 *     a state that was already on the stack are not undone, so filters should be added in a pushed state when
+	 *     they need to be reset.<br>
+	 *     A windowed indexable keeps the data from the checkpoint on until it's discarded, so every checkpoint should
+	 *     be discarded once it's no longer needed, usually in a finally block.  Until then the earliest checkpoint
+	 *     that's still held is kept.
+	 * </p>
+	 * @return
+	 * @see #reset(long)
+	 * @see #discard(long)
+	 */
+	public long checkpoint()
+	{
+		if (holds++ == 0 || index < held)
+			held = index;
+		return ((long)filterStateStack.size() << 32) | (index & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * Lets a windowed indexable release the data kept for a checkpoint.
+	 * <p>
+	 *     The data is only released once every checkpoint made by this indexer has been discarded.
+	 * </p>
+	 * @param checkpoint
+	 * @see #checkpoint()
+	 */
+	public void discard(long checkpoint)
+	{
+		if (holds > 0 && --holds == 0)
+			held = -1;
+	}
+	
+	/**
+	 * Moves back to a checkpoint, and pops any filter states pushed since it was made.
+	 * @param checkpoint
+	 * @see #checkpoint()
+	 */
+	public void reset(long checkpoint)
+	{
+		int depth = (int)(checkpoint >>> 32);
+		if (filterStateStack.size() < depth)
+			throw new RuntimeException("Can not reset to checkpoint: filter states it depends on have been popped.");
+		while (filterStateStack.size() > depth)
+			popFilterState();
+		setPosition((int)checkpoint);
+	}
+	
+	/**
+	 * Marks the current position, so that a windowed indexable keeps the data from here on.
+	 * <p>
+	 *     Without a mark a windowed indexable may release anything before the indexer's current position, and the
+	 *     indexer can't be moved back to it.  The mark stays until it's released or replaced by another mark.<br>
+	 *     Marks have no effect on indexables that aren't windowed.
+	 * </p>
+	 * @see #release()
+	 * @see jogUtil.indexable.Indexable#windowed()
+	 */
+	public void mark()
+	{
+		mark = index;
+	}
+	
+	/**
+	 * Releases this indexer's mark, allowing the data before its current position to be released.
+	 */
+	public void release()
+	{
+		mark = -1;
+	}
+	
+	/**
+	 * Returns the marked position, or -1 if there is no mark.
+	 * @return
+	 */
+	public int markedPosition()
+	{
+		return mark;
+	}
+	
+	/**
+	 * Gives the earliest position this indexer can move back to in a windowed indexable
+	 * @return
+	 */
+	int retainedPosition()
+	{
+		int position = index;
+		int mark = this.mark;
+		if (mark != -1)
+			position = Math.min(position, mark);
+		int held = this.held;
+		if (held != -1)
+			position = Math.min(position, held);
+		return position;
 	}
 	
 	/**
@@ -99,14 +227,16 @@ public class Indexer<Type> implements Iterator<Type>
 	 *     If the indexable is incomplete, then more values might be available
 	 *     in the future even if there are none right now.  The indexer has only
 	 *     reached the end if there are no values available and the indexable is
-	 *     also complete.
+	 *     also complete.<br>
+	 *     If no values are available yet this thread will yield until either
+	 *     one is or the indexable is completed.
 	 * </p>
 	 * @return
 	 * @see #complete()
 	 */
 	public boolean atEnd()
 	{
-		return complete() && !hasNext();
+		return !hasNext() && complete();
 	}
 	
 	/**
@@ -182,6 +312,8 @@ public class Indexer<Type> implements Iterator<Type>
 		index++;
 		if (applyFilter)
 			skipUnwanted();
+		else
+			advanced();
 		return value;
 	}
 	
@@ -189,26 +321,30 @@ public class Indexer<Type> implements Iterator<Type>
 	 * Advances the indexer until the current value passes the filters
 	 * <p>
 	 *     If there are no further values available, but the indexable is incomplete
-	 *     then this thread will yield until more values are added.
+	 *     then this thread will yield until more values are added.  The values skipped count as consumed before
+	 *     yielding, so that producers held back by them can carry on.
 	 * </p>
 	 */
 	private void skipUnwanted()
 	{
-		boolean pass = false;
-		while (!pass)
+		Filter<Type> filter = filterState.compiled;
+		while (true)
 		{
 			if (hasNext(false))
 			{
-				if (filterCheck(indexable.get(index)))
-					pass = true;
-				else
-					index++;
+				if (filter == null || filter.filter(indexable.get(index)))
+					break;
+				index++;
 			}
 			else if (complete())
-				return;
+				break;
 			else
-				indexable.waitForData();
+			{
+				advanced();
+				indexable.waitForSize(index + 1);
+			}
 		}
+		advanced();
 	}
 	
 	/**
@@ -243,8 +379,8 @@ public class Indexer<Type> implements Iterator<Type>
 	{
 		if (applyFilter)
 			skipUnwanted();
-		if (index < indexable.size())
-			indexable.waitForData();
+		while (index >= indexable.size() && !indexable.complete())
+			indexable.waitForSize(index + 1);
 		return indexable.get(index);
 	}
 	
@@ -323,7 +459,7 @@ public class Indexer<Type> implements Iterator<Type>
 	 *     Filters will be applied by default.
 	 * </p>
 	 * @param count number of values to skip.
-	 * @see #skip(int, boolean)    
+	 * @see #skip(int, boolean)
 	 */
 	public void skip(int count)
 	{
@@ -334,7 +470,7 @@ public class Indexer<Type> implements Iterator<Type>
 	 * Skips over multiple values.
 	 * @param count number of values to skip.
 	 * @param applyFilter whether filters should be applied.
-	 * @see #skip(boolean)    
+	 * @see #skip(boolean)
 	 */
 	public void skip(int count, boolean applyFilter)
 	{
@@ -345,25 +481,48 @@ public class Indexer<Type> implements Iterator<Type>
 	/**
 	 * Copies this indexer.
 	 * <p>
-	 *     Creates a new indexer object with the same underlying indexable, at the same position,
-	 *     and a copy if this indexer's filter state and state stack.
+	 *     Creates a new indexer object with the same underlying indexable, at the same position and
+	 *     with the same mark, and a copy if this indexer's filter state and state stack.<br>
+	 *     The new indexer is created by the indexable, so it will be the same kind of indexer as this one.
 	 * </p>
 	 * @return
 	 */
 	public Indexer<Type> copy()
 	{
-		Indexer<Type> indexer = new Indexer<>(indexable, index);
+		Indexer<Type> indexer = indexable.iterator();
+		indexer.index = index;
+		indexer.mark = mark;
 		indexer.filterStateStack.clear();
 		for (Iterator<FilterState<Type>> iterator = filterStateStack.descendingIterator(); iterator.hasNext();)
 		{
-			indexer.filterStateStack.push(iterator.next());
+			indexer.filterStateStack.push(iterator.next().copy());
 		}
+		indexer.filterState = indexer.filterStateStack.peek();
 		return indexer;
 	}
 	
+	/**
+	 * Skips over any of the given values, until a different value or the end is reached.
+	 * @param filter
+	 */
 	public void skip(Type... filter)
 	{
-		skip(List.of(filter));
+		while (!atEnd())
+		{
+			Type value = get();
+			boolean found = false;
+			for (Type check : filter)
+			{
+				if (check.equals(value))
+				{
+					found = true;
+					break;
+				}
+			}
+			if (!found)
+				return;
+			next();
+		}
 	}
 	
 	public void skip(Collection<Type> filter)
@@ -372,13 +531,27 @@ public class Indexer<Type> implements Iterator<Type>
 			next();
 	}
 	
+	/**
+	 * Skips over values that pass the given filter, until one that doesn't or the end is reached.
+	 * <p>
+	 *     The indexer's own filters are still applied, values they reject are skipped regardless.
+	 * </p>
+	 * @param filter
+	 */
+	public void skipWhile(Filter<Type> filter)
+	{
+		while (!atEnd() && filter.filter(get()))
+			next();
+	}
+	
 	/**
 	 * Adds a new filter to the current filter state.
 	 * @param filter
 	 */
 	public void addFilter(Filter<Type> filter)
 	{
-		filterStateStack.peek().filters.add(filter);
+		filterState.filters.add(filter);
+		filterState.compile();
 	}
 	
 	/**
@@ -387,7 +560,8 @@ public class Indexer<Type> implements Iterator<Type>
 	 */
 	public void removeFilter(Filter<Type> filter)
 	{
-		filterStateStack.peek().filters.remove(filter);
+		filterState.filters.remove(filter);
+		filterState.compile();
 	}
 	
 	/**
@@ -399,7 +573,8 @@ public class Indexer<Type> implements Iterator<Type>
 	 */
 	public void pushFilterState()
 	{
-		filterStateStack.push(filterStateStack.peek().copy());
+		filterState = filterState.copy();
+		filterStateStack.push(filterState);
 	}
 	
 	/**
@@ -413,7 +588,19 @@ public class Indexer<Type> implements Iterator<Type>
 	public void popFilterState()
 	{
 		if (filterStateStack.size() > 1)
+		{
 			filterStateStack.pop();
+			filterState = filterStateStack.peek();
+		}
+	}
+	
+	/**
+	 * Checks if there are any filters in the current filter state.
+	 * @return
+	 */
+	public boolean filtered()
+	{
+		return filterState.compiled != null;
 	}
 	
 	/**
@@ -422,32 +609,52 @@ public class Indexer<Type> implements Iterator<Type>
 	 */
 	public boolean filterCheck(Type value)
 	{
-		for (int index = 0; index < filterStateStack.peek().filters.size(); index++)
-		{
-			Filter<Type> filter = filterStateStack.peek().filters.get(index);
-			if (!filter.filter(value))
-				return false;
-		}
-		return true;
+		Filter<Type> filter = filterState.compiled;
+		return filter == null || filter.filter(value);
 	}
 	
 	/**
 	 * Holds all the current filters in a confined state
 	 * <p>
-	 *     Allows a single indexer to have multiple states on a stack
+	 *     Allows a single indexer to have multiple states on a stack.<br>
+	 *     Whenever the filters change they're compiled into a single filter, which is null when there are none, so
+	 *     that checking a value doesn't have to walk the list.
 	 * </p>
 	 * @param <Type>
 	 */
 	static class FilterState<Type>
 	{
 		final ArrayList<Filter<Type>> filters = new ArrayList<>();
+		Filter<Type> compiled = null;
 		
 		protected FilterState<Type> copy()
 		{
 			FilterState<Type> state = new FilterState<>();
 			state.filters.addAll(filters);
+			state.compiled = compiled;
 			return state;
 		}
+		
+		void compile()
+		{
+			if (filters.isEmpty())
+				compiled = null;
+			else if (filters.size() == 1)
+				compiled = filters.get(0);
+			else
+			{
+				ArrayList<Filter<Type>> chain = new ArrayList<>(filters);
+				compiled = (value) ->
+				{
+					for (int index = 0; index < chain.size(); index++)
+					{
+						if (!chain.get(index).filter(value))
+							return false;
+					}
+					return true;
+				};
+			}
+		}
 	}
 	
 	/**
@@ -464,15 +671,26 @@ public class Indexer<Type> implements Iterator<Type>
 	
 	/**
 	 * Only allows values contained in the filter.
+	 * <p>
+	 *     The values are copied when the filter is created, so changing the collection afterwards has no effect on
+	 *     the filter.
+	 * </p>
 	 * @param <FilterType>
 	 */
 	public static class InclusionFilter<FilterType> implements Filter<FilterType>
 	{
 		private final Collection<FilterType> filter;
+		private final CharacterSet characters;
 		
 		public InclusionFilter(Collection<FilterType> filter)
 		{
-			this.filter = filter;
+			characters = CharacterSet.from(filter);
+			if (characters != null)
+				this.filter = null;
+			else if (filter.size() > 8)
+				this.filter = new HashSet<>(filter);
+			else
+				this.filter = new ArrayList<>(filter);
 		}
 		
 		public InclusionFilter(FilterType... filter)
@@ -483,21 +701,34 @@ public class Indexer<Type> implements Iterator<Type>
 		@Override
 		public boolean filter(FilterType value)
 		{
+			if (characters != null)
+				return value instanceof Character character && characters.filter(character);
 			return filter.contains(value);
 		}
 	}
 	
 	/**
 	 * Only allows values not contained in the filter.
+	 * <p>
+	 *     The values are copied when the filter is created, so changing the collection afterwards has no effect on
+	 *     the filter.
+	 * </p>
 	 * @param <FilterType>
 	 */
 	public static class ExclusionFilter<FilterType> implements Filter<FilterType>
 	{
 		private final Collection<FilterType> filter;
+		private final CharacterSet characters;
 		
 		public ExclusionFilter(Collection<FilterType> filter)
 		{
-			this.filter = filter;
+			characters = CharacterSet.from(filter);
+			if (characters != null)
+				this.filter = null;
+			else if (filter.size() > 8)
+				this.filter = new HashSet<>(filter);
+			else
+				this.filter = new ArrayList<>(filter);
 		}
 		
 		public ExclusionFilter(FilterType... filter)
@@ -508,6 +739,8 @@ public class Indexer<Type> implements Iterator<Type>
 		@Override
 		public boolean filter(FilterType value)
 		{
+			if (characters != null)
+				return !(value instanceof Character character) || !characters.filter(character);
 			return !filter.contains(value);
 		}
 	}
@@ -0,0 +1,161 @@
+package jogUtil.indexable;
+
+import java.util.function.*;
+
+/**
+ * The fixed size segments that a stream backed indexable writes its data into
+ * <p>
+ *     Only one thread writes at a time, while any number of threads read.  New segments are added to the directory of
+ *     segments in place, but whenever segments are released or the directory has to grow it's replaced, so a reader
+ *     can keep using the snapshot it got from segments.  The indexable has to publish its size only after the data it
+ *     covers has been written, and readers have to check the size before they read.<br>
+ *     If the indexable is windowed, the segments before its retained position are released whenever a new segment is
+ *     needed.
+ * </p>
+ * @param <Segment>
+ * @see Indexable#retainedPosition()
+ */
+final class SegmentStore<Segment>
+{
+	/**
+	 * The segments that haven't been released, and the number of the first one
+	 */
+	static final class Segments<Segment>
+	{
+		final Segment[] array;
+		final int first;
+		
+		Segments(Segment[] array, int first)
+		{
+			this.array = array;
+			this.first = first;
+		}
+	}
+	
+	final int shift;
+	final int size;
+	final int mask;
+	final Indexable<?> owner;
+	final boolean windowed;
+	final IntFunction<Segment[]> directories;
+	final Supplier<Segment> allocator;
+	/**
+	 * Called with each segment that's released, or null if released segments are simply dropped
+	 */
+	final Consumer<Segment> recycler;
+	volatile Segments<Segment> segments;
+	
+	/**
+	 * @param owner the indexable the segments belong to, which decides what can be released
+	 * @param shift log2 of the segment size
+	 * @param windowed whether segments are released once no indexer can reach them
+	 * @param directories creates arrays to hold the segments in
+	 * @param allocator creates a new segment
+	 * @param recycler
+	 */
+	SegmentStore(Indexable<?> owner, int shift, boolean windowed, IntFunction<Segment[]> directories,
+				 Supplier<Segment> allocator, Consumer<Segment> recycler)
+	{
+		this.owner = owner;
+		this.shift = shift;
+		size = 1 << shift;
+		mask = size - 1;
+		this.windowed = windowed;
+		this.directories = directories;
+		this.allocator = allocator;
+		this.recycler = recycler;
+		segments = new Segments<>(directories.apply(4), 0);
+	}
+	
+	/**
+	 * Gets the segment that the value at the given position will be written to, creating it if needed
+	 * <p>
+	 *     Only called by the thread writing data.
+	 * </p>
+	 * @param position the position being written, which is the indexable's size
+	 * @return
+	 */
+	Segment writable(int position)
+	{
+		Segments<Segment> current = segments;
+		int segmentIndex = (position >> shift) - current.first;
+		if (segmentIndex < current.array.length && current.array[segmentIndex] != null)
+			return current.array[segmentIndex];
+		
+		if (windowed)
+		{
+			current = release(current, position);
+			segmentIndex = (position >> shift) - current.first;
+		}
+		if (segmentIndex == current.array.length)
+		{
+			Segment[] grown = directories.apply(current.array.length * 2);
+			System.arraycopy(current.array, 0, grown, 0, current.array.length);
+			current = new Segments<>(grown, current.first);
+			segments = current;
+		}
+		current.array[segmentIndex] = allocator.get();
+		return current.array[segmentIndex];
+	}
+	
+	/**
+	 * Drops the segments that no live indexer can reach anymore
+	 * @param current
+	 * @param position the end of the data
+	 * @return the segments that are left
+	 */
+	private Segments<Segment> release(Segments<Segment> current, int position)
+	{
+		int first = Math.min(owner.retainedPosition(), position) >> shift;
+		if (first <= current.first)
+			return current;
+		Segment[] array = directories.apply(current.array.length);
+		int released = first - current.first;
+		System.arraycopy(current.array, released, array, 0, current.array.length - released);
+		Segments<Segment> moved = new Segments<>(array, first);
+		segments = moved;
+		if (recycler != null)
+		{
+			for (int index = 0; index < released; index++)
+				recycler.accept(current.array[index]);
+		}
+		return moved;
+	}
+	
+	/**
+	 * Gets the segment holding the given index
+	 * <p>
+	 *     The size has to be checked before calling this, so that the segment has been published.
+	 * </p>
+	 * @param current
+	 * @param index
+	 * @return
+	 */
+	Segment segment(Segments<Segment> current, int index)
+	{
+		int segmentIndex = (index >> shift) - current.first;
+		if (segmentIndex < 0)
+			throw new IndexOutOfBoundsException(index + " has already been released.");
+		return current.array[segmentIndex];
+	}
+	
+	/**
+	 * Gets the segment holding the given index, from the current segments
+	 * @param index
+	 * @return
+	 * @see #segment(Segments, int)
+	 */
+	Segment segment(int index)
+	{
+		return segment(segments, index);
+	}
+	
+	/**
+	 * Gives the index of the first value that hasn't been released
+	 * @return
+	 */
+	int start()
+	{
+		return segments.first << shift;
+	}
+}
\ No newline at end of file